@@ -0,0 +1,151 @@
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.cert.X509Certificate;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Closed-loop load generator for {@code POST /api/providers/match}. Each of
+ * {@code concurrency} virtual-thread clients sends randomized requests back
+ * to back for {@code seconds} over its own kept-alive HTTP/1.1 connection,
+ * then the run prints throughput and latency percentiles. Requests draw
+ * location, areas, modalities, preferences and result count at random, so
+ * few repeat; start the server with {@code --app.matching.cache.max-entries=0}
+ * to measure request handling rather than the result cache. Trusts any
+ * certificate, so only point it at a local instance.
+ *
+ * <pre>java loadtest/MatchLoadTest.java https://localhost:8443 400 30</pre>
+ */
+public class MatchLoadTest {
+    private static final List<String> STATES = List.of("CA", "NY", "WA", "FL", "TX");
+    private static final List<String> AREAS = List.of("Anxiety", "Depression", "Panic attacks", "Worry",
+        "Low self-esteem", "Social fears", "Academic stress", "Major life transitions", "Interpersonal problems",
+        "Relationship difficulties", "Trauma-related stress", "Work-related stress", "Sleep problems",
+        "LGBTQ+ related concerns", "Grief/bereavement", "ADHD");
+    private static final List<String> MODALITIES = List.of("CBT", "DBT", "ACT", "MBCT", "MI", "EMDR",
+        "Art Therapy", "Narrative Therapy", "Psychodynamic");
+    private static final List<String> GENDERS = List.of("Any", "Female", "Male");
+    private static final List<String> LANGUAGES = List.of("Any", "English", "Spanish", "Mandarin");
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "https://localhost:8443";
+        int concurrency = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        var client = HttpClient.newBuilder()
+            // HTTP/1.1 keeps one connection per client open, so TLS handshakes happen during warm-up only
+            .version(HttpClient.Version.HTTP_1_1)
+            .sslContext(trustAll())
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        var uri = URI.create(baseUrl + "/api/providers/match");
+
+        // Warm up the JIT and open every client's connection before measuring
+        run(client, uri, concurrency, 5);
+        var result = run(client, uri, concurrency, seconds);
+
+        long[] latencies = result.latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        System.out.printf("concurrency=%d requests=%d errors=%d throughput=%.0f req/s%n", concurrency,
+            latencies.length, result.errors.get(), latencies.length / (double) seconds);
+        System.out.printf("latency ms: p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f%n",
+            percentile(latencies, 50), percentile(latencies, 90), percentile(latencies, 99),
+            percentile(latencies, 99.9), percentile(latencies, 100));
+    }
+
+    private record Result(ConcurrentLinkedQueue<Long> latencies, AtomicLong errors) {
+    }
+
+    private static Result run(HttpClient client, URI uri, int concurrency, int seconds) throws InterruptedException {
+        var result = new Result(new ConcurrentLinkedQueue<>(), new AtomicLong());
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        var clients = new ArrayList<Thread>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            clients.add(Thread.ofVirtual().start(() -> {
+                while (System.nanoTime() < deadline) {
+                    var request = HttpRequest.newBuilder(uri)
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(randomBody()))
+                        .build();
+                    long started = System.nanoTime();
+                    try {
+                        var response = client.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() == 200) {
+                            result.latencies.add(System.nanoTime() - started);
+                        } else {
+                            result.errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        result.errors.incrementAndGet();
+                    }
+                }
+            }));
+        }
+        for (Thread thread : clients) {
+            thread.join();
+        }
+        return result;
+    }
+
+    private static String randomBody() {
+        var random = ThreadLocalRandom.current();
+        return """
+            {"location": "%s", "areasOfConcern": %s, "treatmentModality": %s,
+             "demographics": {"ethnicity": "Asian", "gender": "Female", "religion": "None", "maritalStatus": "Single"},
+             "therapistPreferences": {"preferredGender": "%s", "preferredLanguage": "%s"},
+             "paymentMethod": "%s", "maxResults": %d}
+            """.formatted(pick(STATES), sample(AREAS, 1 + random.nextInt(3)), sample(MODALITIES, 1 + random.nextInt(2)),
+            pick(GENDERS), pick(LANGUAGES), random.nextBoolean() ? "self-pay" : "insurance", 1 + random.nextInt(10));
+    }
+
+    private static String pick(List<String> values) {
+        return values.get(ThreadLocalRandom.current().nextInt(values.size()));
+    }
+
+    /** A JSON array of {@code count} values drawn without replacement. */
+    private static String sample(List<String> values, int count) {
+        var shuffled = new ArrayList<>(values);
+        Collections.shuffle(shuffled, ThreadLocalRandom.current());
+        return shuffled.subList(0, count).stream()
+            .map(value -> '"' + value + '"')
+            .collect(Collectors.joining(", ", "[", "]"));
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        if (sorted.length == 0) return 0;
+        int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(sorted.length - 1, index))] / 1_000_000.0;
+    }
+
+    private static SSLContext trustAll() throws Exception {
+        var trustAll = new X509TrustManager() {
+            @Override
+            public void checkClientTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public void checkServerTrusted(X509Certificate[] chain, String authType) {
+            }
+
+            @Override
+            public X509Certificate[] getAcceptedIssuers() {
+                return new X509Certificate[0];
+            }
+        };
+        var context = SSLContext.getInstance("TLS");
+        context.init(null, new TrustManager[]{trustAll}, null);
+        return context;
+    }
+}
@@ -0,0 +1,59 @@
+package com.anisehealth.matching.benchmark;
+
+import com.anisehealth.matching.config.MatchingProperties;
+import com.anisehealth.matching.config.RosterProperties;
+import com.anisehealth.matching.model.Provider;
+import com.anisehealth.matching.scoring.WeightedMatchScorer;
+import com.anisehealth.matching.service.MatchMetrics;
+import com.anisehealth.matching.service.MatchResultCache;
+import com.anisehealth.matching.service.ProviderMatchingService;
+import com.anisehealth.matching.service.RosterLoader;
+import com.opencsv.bean.CsvToBeanBuilder;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/** Wiring shared by the benchmarks, mirroring what Spring would inject. */
+final class Benchmarks {
+
+    private Benchmarks() {
+    }
+
+    static RosterProperties rosterProperties(Path csv, RosterProperties.Storage storage) {
+        var properties = new RosterProperties();
+        properties.setLocation(csv.toUri().toString());
+        properties.setWatch(false);
+        properties.setStorage(storage);
+        return properties;
+    }
+
+    /**
+     * A matching service over the CSV, with the result cache off so every
+     * call runs the pipeline, recording metrics the way production does.
+     */
+    static ProviderMatchingService matchingService(RosterProperties rosterProperties, MatchingProperties matching) {
+        matching.getCache().setMaxEntries(0);
+        var service = new ProviderMatchingService(
+            new WeightedMatchScorer(matching),
+            new RosterLoader(rosterProperties, new DefaultResourceLoader()),
+            rosterProperties,
+            new MatchResultCache(matching, new SimpleMeterRegistry()),
+            new MatchMetrics(matching, new PrometheusMeterRegistry(PrometheusConfig.DEFAULT)));
+        service.init();
+        return service;
+    }
+
+    /** Binds the CSV rows to providers without processing them. */
+    static List<Provider> bind(Path csv) throws IOException {
+        try (var reader = Files.newBufferedReader(csv, StandardCharsets.UTF_8)) {
+            return new CsvToBeanBuilder<Provider>(reader).withType(Provider.class).build().parse();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.anisehealth.matching.benchmark;
+
+import com.anisehealth.matching.config.MatchingProperties;
+import com.anisehealth.matching.config.RosterProperties;
+import com.anisehealth.matching.model.BulkAssignment;
+import com.anisehealth.matching.model.PatientRequest;
+import com.anisehealth.matching.service.BulkAssignmentService;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulk assignment of a synthetic batch with each strategy, ranking
+ * included. JMH reports each run's {@code assignedPatients} and
+ * {@code totalScore} as secondary results next to the timings, so the
+ * strategies can be compared on quality as well as speed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class BulkAssignmentBenchmark {
+
+    @Param({"1000", "100000"})
+    int rosterSize;
+
+    @Param({"1000", "10000"})
+    int patients;
+
+    @Param({"AUCTION", "GREEDY"})
+    BulkAssignment.Strategy strategy;
+
+    private BulkAssignmentService service;
+    private List<PatientRequest> requests;
+
+    @Setup
+    public void setUp() throws IOException {
+        var roster = SyntheticRoster.fromMockData();
+        var matching = new MatchingProperties();
+        var matchingService = Benchmarks.matchingService(
+            Benchmarks.rosterProperties(roster.csv(rosterSize), RosterProperties.Storage.OBJECTS), matching);
+        service = new BulkAssignmentService(matchingService, matching);
+        requests = roster.requests(patients);
+    }
+
+    /** The outcome of the last assignment, reported as is rather than per second. */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcome {
+        public long assignedPatients;
+        public long totalScore;
+    }
+
+    @Benchmark
+    public BulkAssignment assign(Outcome outcome) {
+        BulkAssignment result = service.assign(requests, strategy);
+        outcome.assignedPatients = result.getAssignedPatients();
+        outcome.totalScore = result.getTotalScore();
+        return result;
+    }
+}
@@ -0,0 +1,60 @@
+package com.anisehealth.matching.benchmark;
+
+import com.anisehealth.matching.model.PatientRequest;
+import com.anisehealth.matching.model.Provider;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Request decoding and response encoding with an {@link ObjectMapper}
+ * configured the way Spring Boot configures the web layer's.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonBenchmark {
+    private static final byte[] REQUEST = """
+        {"location": "CA", "areasOfConcern": ["Anxiety", "Depression"], "treatmentModality": ["CBT"],
+         "demographics": {"ethnicity": "Asian", "gender": "Female", "religion": "None", "maritalStatus": "Single"},
+         "therapistPreferences": {"preferredGender": "Any", "preferredLanguage": "English"},
+         "paymentMethod": "insurance", "insuranceProvider": "Aetna", "maxResults": 3}
+        """.getBytes(StandardCharsets.UTF_8);
+
+    private ObjectMapper mapper;
+    private List<Provider> matches;
+
+    @Setup
+    public void setUp() throws IOException {
+        mapper = Jackson2ObjectMapperBuilder.json().build();
+        matches = Benchmarks.bind(SyntheticRoster.fromMockData().csv(1000)).subList(0, 3);
+        matches.forEach(Provider::processRawFields);
+    }
+
+    @Benchmark
+    public PatientRequest readRequest() throws IOException {
+        return mapper.readValue(REQUEST, PatientRequest.class);
+    }
+
+    @Benchmark
+    public byte[] writeMatches() throws IOException {
+        return mapper.writeValueAsBytes(matches);
+    }
+}
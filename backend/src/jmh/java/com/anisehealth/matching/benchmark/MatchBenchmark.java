@@ -0,0 +1,62 @@
+package com.anisehealth.matching.benchmark;
+
+import com.anisehealth.matching.config.MatchingProperties;
+import com.anisehealth.matching.config.RosterProperties;
+import com.anisehealth.matching.model.PatientRequest;
+import com.anisehealth.matching.model.Provider;
+import com.anisehealth.matching.service.ProviderMatchingService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** {@code findMatches} against the full pipeline, cycling through 1,024 synthetic patients. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class MatchBenchmark {
+    private static final int REQUESTS = 1024;
+
+    @Param({"1000", "100000", "1000000"})
+    int rosterSize;
+
+    @Param({"OBJECTS", "COLUMNAR"})
+    RosterProperties.Storage storage;
+
+    /** Compare runs with and without per-stage metrics to check their overhead budget. */
+    @Param({"true", "false"})
+    boolean stageMetrics;
+
+    private ProviderMatchingService service;
+    private List<PatientRequest> requests;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        var roster = SyntheticRoster.fromMockData();
+        var matching = new MatchingProperties();
+        matching.getMetrics().setStages(stageMetrics);
+        service = Benchmarks.matchingService(Benchmarks.rosterProperties(roster.csv(rosterSize), storage), matching);
+        requests = roster.requests(REQUESTS);
+    }
+
+    @Benchmark
+    public List<Provider> findMatches() {
+        next = (next + 1) & (REQUESTS - 1);
+        return service.findMatches(requests.get(next));
+    }
+}
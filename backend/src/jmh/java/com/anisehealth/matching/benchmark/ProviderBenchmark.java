@@ -0,0 +1,44 @@
+package com.anisehealth.matching.benchmark;
+
+import com.anisehealth.matching.model.Provider;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** {@link Provider#processRawFields()} over 1,024 bound synthetic rows. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ProviderBenchmark {
+    private static final int PROVIDERS = 1024;
+
+    private List<Provider> providers;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        providers = Benchmarks.bind(SyntheticRoster.fromMockData().csv(PROVIDERS));
+    }
+
+    @Benchmark
+    public Provider processRawFields() {
+        next = (next + 1) & (PROVIDERS - 1);
+        Provider provider = providers.get(next);
+        provider.processRawFields();
+        return provider;
+    }
+}
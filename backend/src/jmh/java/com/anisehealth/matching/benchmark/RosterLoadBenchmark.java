@@ -0,0 +1,61 @@
+package com.anisehealth.matching.benchmark;
+
+import com.anisehealth.matching.config.RosterProperties;
+import com.anisehealth.matching.service.RosterLoader;
+import com.anisehealth.matching.service.RosterSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parsing, normalizing and indexing a roster CSV into a built snapshot, or
+ * with {@code snapshot=true} restoring it from the binary snapshot file.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx8g"})
+public class RosterLoadBenchmark {
+
+    @Param({"1000", "100000", "1000000"})
+    int rosterSize;
+
+    @Param({"false", "true"})
+    boolean snapshot;
+
+    private RosterLoader loader;
+
+    @Setup
+    public void setUp() throws IOException {
+        var csv = SyntheticRoster.fromMockData().csv(rosterSize);
+        var properties = Benchmarks.rosterProperties(csv, RosterProperties.Storage.OBJECTS);
+        if (snapshot) {
+            var path = Files.createTempDirectory("roster-snapshot").resolve("roster.bin");
+            path.toFile().deleteOnExit();
+            properties.setSnapshotPath(path.toString());
+        }
+        loader = new RosterLoader(properties, new DefaultResourceLoader());
+        // Writes the snapshot the measured loads restore
+        if (snapshot) loader.load();
+    }
+
+    @Benchmark
+    public RosterSnapshot load() throws IOException {
+        return loader.load().build(1);
+    }
+}
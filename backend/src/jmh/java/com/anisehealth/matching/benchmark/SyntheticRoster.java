@@ -0,0 +1,130 @@
+package com.anisehealth.matching.benchmark;
+
+import com.anisehealth.matching.model.PatientRequest;
+import com.opencsv.CSVReader;
+import com.opencsv.CSVWriter;
+import com.opencsv.exceptions.CsvException;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Rosters and patient requests of any size built from the values in
+ * {@code mock-data.csv}. Each synthetic provider takes every column from an
+ * independently chosen mock row, so term frequencies follow the mock data,
+ * and gets a numbered last name to keep ids unique. Output is deterministic
+ * for a size, and generated CSVs are kept under {@code target/jmh-rosters}.
+ */
+final class SyntheticRoster {
+    private static final long SEED = 20240101L;
+    private static final Path DIRECTORY = Path.of("target", "jmh-rosters");
+    private static final String CAPACITY = "No Of Clients Able To Take On";
+    private static final String LAST_NAME = "Last Name";
+
+    private final String[] header;
+    // Non-blank values seen per column
+    private final List<List<String>> values;
+
+    private SyntheticRoster(String[] header, List<List<String>> values) {
+        this.header = header;
+        this.values = values;
+    }
+
+    static SyntheticRoster fromMockData() {
+        try (var reader = new CSVReader(new InputStreamReader(
+                SyntheticRoster.class.getResourceAsStream("/mock-data.csv"), StandardCharsets.UTF_8))) {
+            String[] header = reader.readNext();
+            var values = new ArrayList<List<String>>();
+            for (int column = 0; column < header.length; column++) {
+                values.add(new ArrayList<>());
+            }
+            for (String[] row : reader.readAll()) {
+                for (int column = 0; column < Math.min(row.length, header.length); column++) {
+                    if (!row[column].isBlank()) values.get(column).add(row[column]);
+                }
+            }
+            return new SyntheticRoster(header, values);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (CsvException e) {
+            throw new IllegalStateException("Unreadable mock-data.csv", e);
+        }
+    }
+
+    /** Returns a CSV with {@code size} providers, generating it on first use. */
+    Path csv(int size) throws IOException {
+        Path path = DIRECTORY.resolve("roster-" + size + ".csv");
+        if (Files.isRegularFile(path)) return path;
+
+        Files.createDirectories(DIRECTORY);
+        Path temp = Files.createTempFile(DIRECTORY, "roster-" + size, ".tmp");
+        var random = new Random(SEED);
+        try (var writer = new CSVWriter(Files.newBufferedWriter(temp, StandardCharsets.UTF_8))) {
+            writer.writeNext(header);
+            String[] row = new String[header.length];
+            for (int provider = 0; provider < size; provider++) {
+                for (int column = 0; column < header.length; column++) {
+                    row[column] = pick(random, values.get(column));
+                    if (header[column].equals(LAST_NAME)) row[column] += " " + provider;
+                    if (header[column].equals(CAPACITY)) row[column] = Integer.toString(1 + random.nextInt(20));
+                }
+                writer.writeNext(row);
+            }
+        }
+        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING);
+        return path;
+    }
+
+    /** Patient requests asking for terms, states and payment options that occur in the mock roster. */
+    List<PatientRequest> requests(int count) {
+        var random = new Random(SEED + count);
+        var requests = new ArrayList<PatientRequest>(count);
+        for (int i = 0; i < count; i++) {
+            var request = new PatientRequest();
+            request.setLocation(pick(random, split(column("Location"))).trim());
+            request.setAreasOfConcern(List.of(pick(random, split(column("Areas of Specialization"))).trim()));
+            request.setTreatmentModality(List.of(pick(random, split(column("Treatment Modality"))).trim()));
+            request.setPaymentMethod(random.nextBoolean()
+                ? PatientRequest.PaymentMethod.SELF_PAY : PatientRequest.PaymentMethod.INSURANCE);
+
+            var demographics = new PatientRequest.Demographics();
+            demographics.setEthnicity(pick(random, column("Ethnic Identity")));
+            demographics.setGender(pick(random, column("Gender Identity")));
+            demographics.setReligion(pick(random, column("Religious Background")));
+            demographics.setMaritalStatus("Single");
+            request.setDemographics(demographics);
+
+            var preferences = new PatientRequest.TherapistPreferences();
+            preferences.setPreferredGender(random.nextInt(4) == 0 ? pick(random, column("Gender Identity")) : "Any");
+            preferences.setPreferredLanguage(random.nextInt(4) == 0 ? "English" : "Any");
+            preferences.setPreferredEthnicity("Any");
+            preferences.setPreferredReligion("Any");
+            request.setTherapistPreferences(preferences);
+            requests.add(request);
+        }
+        return requests;
+    }
+
+    private List<String> column(String name) {
+        int column = Arrays.asList(header).indexOf(name);
+        if (column < 0) throw new IllegalStateException("mock-data.csv has no column " + name);
+        return values.get(column);
+    }
+
+    private static List<String> split(List<String> cells) {
+        return cells.stream().flatMap(cell -> Arrays.stream(cell.split(","))).filter(s -> !s.isBlank()).toList();
+    }
+
+    private static String pick(Random random, List<String> values) {
+        return values.isEmpty() ? "" : values.get(random.nextInt(values.size()));
+    }
+}
@@ -2,11 +2,17 @@ package com.anisehealth.matching;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.security.reactive.ReactiveUserDetailsServiceAutoConfiguration;
+import org.springframework.boot.autoconfigure.security.servlet.UserDetailsServiceAutoConfiguration;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import io.swagger.v3.oas.models.OpenAPI;
 import io.swagger.v3.oas.models.info.Info;
 
-@SpringBootApplication
+// Callers authenticate with API keys (see SecurityConfig), so no generated default user
+@SpringBootApplication(exclude = {UserDetailsServiceAutoConfiguration.class,
+    ReactiveUserDetailsServiceAutoConfiguration.class})
+@EnableScheduling
 public class ProviderMatchingApplication {
 
     public static void main(String[] args) {
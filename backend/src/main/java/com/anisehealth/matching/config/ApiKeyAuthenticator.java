@@ -0,0 +1,54 @@
+package com.anisehealth.matching.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.authentication.preauth.PreAuthenticatedAuthenticationToken;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Checks the key a caller sends in {@code app.security.api-key-header}
+ * against the configured {@code app.security.api-keys}. Shared by
+ * {@link SecurityConfig} and {@link ReactiveSecurityConfig}. With no keys
+ * configured nobody authenticates, so protected endpoints stay closed.
+ */
+@Slf4j
+class ApiKeyAuthenticator {
+    static final String PRINCIPAL = "api-client";
+
+    private final String header;
+    private final List<byte[]> keys;
+
+    ApiKeyAuthenticator(String header, List<String> keys) {
+        this.header = header;
+        this.keys = keys.stream()
+            .map(String::trim)
+            .filter(key -> !key.isEmpty())
+            .map(key -> key.getBytes(StandardCharsets.UTF_8))
+            .toList();
+        if (this.keys.isEmpty()) {
+            log.warn("No API keys configured (app.security.api-keys); reservations and the actuator are unreachable");
+        }
+    }
+
+    String header() {
+        return header;
+    }
+
+    /** The caller's authentication when {@code presented} is a configured key, compared in constant time. */
+    Optional<Authentication> authenticate(String presented) {
+        if (presented == null || presented.isEmpty()) return Optional.empty();
+        var candidate = presented.getBytes(StandardCharsets.UTF_8);
+        var matched = false;
+        for (var key : keys) {
+            matched |= MessageDigest.isEqual(key, candidate);
+        }
+        if (!matched) return Optional.empty();
+        return Optional.of(new PreAuthenticatedAuthenticationToken(PRINCIPAL, null,
+            AuthorityUtils.createAuthorityList("ROLE_API_CLIENT")));
+    }
+}
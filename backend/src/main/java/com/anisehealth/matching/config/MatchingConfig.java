@@ -0,0 +1,17 @@
+package com.anisehealth.matching.config;
+
+import com.anisehealth.matching.scoring.MatchScorer;
+import com.anisehealth.matching.scoring.WeightedMatchScorer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class MatchingConfig {
+
+    @Bean
+    @ConditionalOnMissingBean(MatchScorer.class)
+    public MatchScorer matchScorer(MatchingProperties properties) {
+        return new WeightedMatchScorer(properties);
+    }
+}
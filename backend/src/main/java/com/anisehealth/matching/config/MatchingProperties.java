@@ -0,0 +1,51 @@
+package com.anisehealth.matching.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.matching")
+public class MatchingProperties {
+    private Weights weights = new Weights();
+    private Cache cache = new Cache();
+    private Assignment assignment = new Assignment();
+    private Metrics metrics = new Metrics();
+
+    @Data
+    public static class Weights {
+        /** Applied to the provider's precomputed static score (capacity * 2 + profile breadth). */
+        private int profile = 1;
+        /** Per requested area of concern the provider specializes in. */
+        private int areaOverlap = 5;
+        /** Per requested treatment modality the provider offers. */
+        private int modalityOverlap = 3;
+        /** Per explicit therapist preference the provider satisfies. */
+        private int preferenceHit = 2;
+        /** Per open client slot, on top of what the static score already counts. */
+        private int capacity = 0;
+        /** When the provider accepts the patient's payment method (and insurer, if given). */
+        private int paymentFit = 5;
+        /** Per point of BM25 relevance between the provider's bio and the request's bio query. 0 ignores bios. */
+        private int bioRelevance = 3;
+    }
+
+    @Data
+    public static class Cache {
+        /** Most match results kept; those least likely to be reused are evicted first. 0 disables caching. */
+        private int maxEntries = 10_000;
+    }
+
+    @Data
+    public static class Assignment {
+        /** Best-scoring providers each patient may be assigned to in a bulk assignment. */
+        private int candidatesPerPatient = 32;
+    }
+
+    @Data
+    public static class Metrics {
+        /** Time each match pipeline stage and count the candidates it keeps. */
+        private boolean stages = true;
+    }
+}
@@ -0,0 +1,74 @@
+package com.anisehealth.matching.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.header.XFrameOptionsServerHttpHeadersWriter;
+import org.springframework.security.web.server.header.XXssProtectionServerHttpHeadersWriter;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import org.springframework.web.server.WebFilter;
+
+import java.util.List;
+
+/** The rules of {@link SecurityConfig} for the reactive stack. */
+@Configuration
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain reactiveFilterChain(ServerHttpSecurity http,
+                                                      @Value("${app.cors.allowed-origins}") List<String> allowedOrigins,
+                                                      @Value("${app.security.api-key-header}") String apiKeyHeader,
+                                                      @Value("${app.security.api-keys:}") List<String> apiKeys) {
+        http
+            .csrf(ServerHttpSecurity.CsrfSpec::disable)
+            .cors(cors -> cors.configurationSource(corsSource(allowedOrigins)))
+            .headers(headers -> headers
+                .xssProtection(xss -> xss
+                    .headerValue(XXssProtectionServerHttpHeadersWriter.HeaderValue.ENABLED_MODE_BLOCK))
+                .contentSecurityPolicy(csp -> csp
+                    .policyDirectives("default-src 'self'; frame-ancestors 'none';"))
+                .frameOptions(frame -> frame.mode(XFrameOptionsServerHttpHeadersWriter.Mode.DENY)))
+            .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+            .addFilterAt(apiKeyFilter(new ApiKeyAuthenticator(apiKeyHeader, apiKeys)),
+                SecurityWebFiltersOrder.AUTHENTICATION)
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED)))
+            .authorizeExchange(auth -> auth
+                .pathMatchers("/api/providers/*/reservations").authenticated()
+                .pathMatchers("/api/**").permitAll()
+                .pathMatchers("/swagger-ui/**", "/api-docs/**").permitAll()
+                .anyExchange().authenticated());
+
+        return http.build();
+    }
+
+    /** Authenticates the exchange when it carries a configured API key; otherwise leaves it anonymous. */
+    private static WebFilter apiKeyFilter(ApiKeyAuthenticator authenticator) {
+        return (exchange, chain) -> authenticator
+            .authenticate(exchange.getRequest().getHeaders().getFirst(authenticator.header()))
+            .map(authentication -> chain.filter(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication)))
+            .orElseGet(() -> chain.filter(exchange));
+    }
+
+    /** Mirrors the {@code @CrossOrigin} on {@code ProviderController}. */
+    private static UrlBasedCorsConfigurationSource corsSource(List<String> allowedOrigins) {
+        var cors = new CorsConfiguration().applyPermitDefaultValues();
+        cors.setAllowedOrigins(allowedOrigins);
+        var source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/api/**", cors);
+        return source;
+    }
+}
@@ -0,0 +1,39 @@
+package com.anisehealth.matching.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.roster")
+public class RosterProperties {
+    /** Spring resource location of the provider CSV, e.g. {@code file:/data/roster.csv}. */
+    private String location = "classpath:mock-data.csv";
+    /** Reload the roster in the background when the file changes. Only applies to file-backed locations. */
+    private boolean watch = true;
+    /** How often to check the roster file for changes. */
+    private Duration pollInterval = Duration.ofSeconds(30);
+    /** Worker threads used to bind, normalize and index roster rows. 1 loads on the calling thread. */
+    private int ingestParallelism = Runtime.getRuntime().availableProcessors();
+    /** Rows handed to a worker at a time. */
+    private int ingestChunkSize = 1024;
+    /**
+     * Binary snapshot of the built roster, restored instead of parsing the CSV
+     * when it was written from the same CSV. Empty disables snapshots.
+     */
+    private String snapshotPath = "";
+    /**
+     * How a loaded roster is held in memory. COLUMNAR keeps match fields in
+     * primitive columns and free text off-heap, building provider objects
+     * only for returned matches.
+     */
+    private Storage storage = Storage.OBJECTS;
+
+    public enum Storage {
+        OBJECTS,
+        COLUMNAR
+    }
+}
@@ -1,19 +1,45 @@
 package com.anisehealth.matching.config;
 
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
+import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.authentication.AnonymousAuthenticationFilter;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
 import org.springframework.security.web.header.writers.XXssProtectionHeaderWriter;
+import org.springframework.web.filter.OncePerRequestFilter;
 
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Matching and search under {@code /api/**} are open; reserving or
+ * releasing a provider slot changes shared capacity, so it needs an
+ * authenticated caller. So does everything outside {@code /api/**}
+ * except Swagger, including the Prometheus scrape. Callers authenticate
+ * by sending one of {@code app.security.api-keys} in the
+ * {@code app.security.api-key-header} header.
+ */
 @Configuration
 @EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
+    public SecurityFilterChain filterChain(HttpSecurity http,
+                                           @Value("${app.security.api-key-header}") String apiKeyHeader,
+                                           @Value("${app.security.api-keys:}") List<String> apiKeys) throws Exception {
         http
             .csrf(AbstractHttpConfigurer::disable)
             .cors(cors -> {})
@@ -23,11 +49,38 @@ public class SecurityConfig {
                 .contentSecurityPolicy(csp -> csp
                     .policyDirectives("default-src 'self'; frame-ancestors 'none';"))
                 .frameOptions(frame -> frame.deny()))
+            .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+            .addFilterBefore(new ApiKeyFilter(new ApiKeyAuthenticator(apiKeyHeader, apiKeys)),
+                AnonymousAuthenticationFilter.class)
+            .exceptionHandling(exceptions -> exceptions
+                .authenticationEntryPoint(new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)))
             .authorizeHttpRequests(auth -> auth
+                .requestMatchers("/api/providers/*/reservations").authenticated()
                 .requestMatchers("/api/**").permitAll()
                 .requestMatchers("/swagger-ui/**", "/api-docs/**").permitAll()
                 .anyRequest().authenticated());
 
         return http.build();
     }
-} 
\ No newline at end of file
+
+    /** Authenticates the request when it carries a configured API key; otherwise leaves it anonymous. */
+    private static class ApiKeyFilter extends OncePerRequestFilter {
+        private final ApiKeyAuthenticator authenticator;
+
+        ApiKeyFilter(ApiKeyAuthenticator authenticator) {
+            this.authenticator = authenticator;
+        }
+
+        @Override
+        protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                throws ServletException, IOException {
+            authenticator.authenticate(request.getHeader(authenticator.header()))
+                .ifPresent(authentication -> {
+                    var context = SecurityContextHolder.createEmptyContext();
+                    context.setAuthentication(authentication);
+                    SecurityContextHolder.setContext(context);
+                });
+            chain.doFilter(request, response);
+        }
+    }
+}
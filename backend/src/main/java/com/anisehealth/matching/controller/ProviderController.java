@@ -1,30 +1,145 @@
 package com.anisehealth.matching.controller;
 
+import com.anisehealth.matching.model.BatchMatchResult;
+import com.anisehealth.matching.model.BioSearchResult;
+import com.anisehealth.matching.model.BulkAssignment;
+import com.anisehealth.matching.model.MatchExplanation;
 import com.anisehealth.matching.model.Provider;
 import com.anisehealth.matching.model.PatientRequest;
+import com.anisehealth.matching.model.RelaxedMatch;
+import com.anisehealth.matching.model.ReservationResponse;
+import com.anisehealth.matching.service.BulkAssignmentService;
 import com.anisehealth.matching.service.ProviderMatchingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.Optional;
 
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/providers")
 @RequiredArgsConstructor
 @Tag(name = "Provider Matching", description = "API endpoints for matching patients with providers")
 @CrossOrigin(origins = "${app.cors.allowed-origins}")
 public class ProviderController {
     private final ProviderMatchingService matchingService;
+    private final BulkAssignmentService assignmentService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping("/match")
     @Operation(summary = "Find matching providers",
-               description = "Returns up to 3 best matching providers based on patient preferences")
+               description = "Returns up to maxResults (default 3) best matching providers based on patient preferences")
     public ResponseEntity<List<Provider>> findMatches(@Valid @RequestBody PatientRequest request) {
         var matches = matchingService.findMatches(request);
         return ResponseEntity.ok(matches);
     }
-} 
\ No newline at end of file
+
+    @GetMapping("/search")
+    @Operation(summary = "Search provider bios",
+               description = "Ranks providers by the BM25 relevance of their bio to the query text, best first. "
+                   + "Matching filters and capacity do not apply")
+    public ResponseEntity<List<BioSearchResult>> searchBios(
+            @RequestParam @NotBlank @Size(max = 500) String q,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(50) int limit) {
+        return ResponseEntity.ok(matchingService.searchBios(q, limit));
+    }
+
+    @PostMapping("/match/relaxed")
+    @Operation(summary = "Find matching providers, relaxing preferences if needed",
+               description = "Returns up to maxResults providers. When too few meet every constraint, the religion, "
+                   + "ethnicity and gender preferences and then the treatment modality are dropped in that order; "
+                   + "each result lists the constraints it does not meet")
+    public ResponseEntity<List<RelaxedMatch>> findMatchesRelaxed(@Valid @RequestBody PatientRequest request) {
+        return ResponseEntity.ok(matchingService.findMatchesRelaxed(request));
+    }
+
+    @PostMapping("/match/explain")
+    @Operation(summary = "Explain a match",
+               description = "Runs the request once and returns each filter stage's candidate counts, a sample of "
+                   + "the providers it excluded with their value for the rejecting field, and the score breakdown "
+                   + "of the returned matches")
+    public ResponseEntity<MatchExplanation> explain(@Valid @RequestBody PatientRequest request) {
+        return ResponseEntity.ok(matchingService.explain(request));
+    }
+
+    @PostMapping(value = "/match/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Find matching providers for a batch of patients",
+               description = "Matches every request against the same roster version and streams one JSON line per "
+                   + "request, in request order. With capacityAware=true, each patient's first match holds one of "
+                   + "that provider's slots for the rest of the batch")
+    public ResponseEntity<StreamingResponseBody> findMatchesBatch(
+            @RequestBody @NotEmpty List<@Valid PatientRequest> requests,
+            @RequestParam(defaultValue = "false") boolean capacityAware) {
+        var results = matchingService.findMatchesBatch(requests, capacityAware);
+        StreamingResponseBody body = out -> {
+            try (results) {
+                results.forEachOrdered(result -> writeLine(out, result));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
+
+    @PostMapping("/assignments")
+    @Operation(summary = "Assign providers across a batch of patients",
+               description = "Gives each patient at most one provider without exceeding any provider's open slots. "
+                   + "AUCTION maximizes the batch's total match score, exactly for fewer than 16 patients and "
+                   + "otherwise to within one point per 16 patients of the best total; "
+                   + "GREEDY serves patients in request order. "
+                   + "Nothing is reserved")
+    public ResponseEntity<BulkAssignment> assign(
+            @RequestBody @NotEmpty List<@Valid PatientRequest> requests,
+            @RequestParam(defaultValue = "AUCTION") BulkAssignment.Strategy strategy) {
+        return ResponseEntity.ok(assignmentService.assign(requests, strategy));
+    }
+
+    private void writeLine(OutputStream out, BatchMatchResult result) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(result));
+            out.write('\n');
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @PostMapping("/{providerId}/reservations")
+    @Operation(summary = "Reserve a provider slot",
+               description = "Takes one open slot from the provider; responds 409 when the provider is full")
+    public ResponseEntity<ReservationResponse> reserve(@PathVariable String providerId) {
+        return toResponse(matchingService.reserve(providerId));
+    }
+
+    @DeleteMapping("/{providerId}/reservations")
+    @Operation(summary = "Release a provider slot",
+               description = "Returns one reserved slot; responds 409 when no slot is reserved")
+    public ResponseEntity<ReservationResponse> release(@PathVariable String providerId) {
+        return toResponse(matchingService.release(providerId));
+    }
+
+    private ResponseEntity<ReservationResponse> toResponse(Optional<ReservationResponse> result) {
+        return result
+            .map(reservation -> ResponseEntity.status(reservation.isApplied() ? HttpStatus.OK : HttpStatus.CONFLICT)
+                .body(reservation))
+            .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,66 @@
+package com.anisehealth.matching.controller;
+
+import com.anisehealth.matching.model.PatientRequest;
+import com.anisehealth.matching.service.ProviderMatchingService;
+import jakarta.validation.Validator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.stream.Collectors;
+
+import static org.springframework.web.reactive.function.server.RequestPredicates.POST;
+import static org.springframework.web.reactive.function.server.RequestPredicates.contentType;
+
+/**
+ * Non-blocking variant of {@code POST /api/providers/match}, served instead
+ * of {@link ProviderController} when the application runs on the reactive
+ * stack ({@code spring.main.web-application-type: reactive}). The body is
+ * decoded by Jackson's non-blocking parser, including the custom payment and
+ * insurer deserializers, so no request holds a thread while waiting on its
+ * client. Matching is CPU-bound, so it runs on the parallel scheduler rather
+ * than on the event loop, which keeps accepting and decoding requests.
+ *
+ * <p>This is the only application route on the reactive stack; the other
+ * {@code /api/providers} endpoints are served by the servlet stack alone and
+ * answer 404 here.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveMatchRouter {
+
+    @Bean
+    public RouterFunction<ServerResponse> matchRoutes(ProviderMatchingService matchingService, Validator validator) {
+        return RouterFunctions.route(POST("/api/providers/match").and(contentType(MediaType.APPLICATION_JSON)),
+            request -> findMatches(request, matchingService, validator));
+    }
+
+    private static Mono<ServerResponse> findMatches(ServerRequest request, ProviderMatchingService matchingService,
+                                                    Validator validator) {
+        return request.bodyToMono(PatientRequest.class)
+            .switchIfEmpty(Mono.error(() -> new ServerWebInputException("Request body is required")))
+            .doOnNext(patient -> validate(validator, patient))
+            .publishOn(Schedulers.parallel())
+            .map(matchingService::findMatches)
+            .flatMap(matches -> ServerResponse.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue(matches));
+    }
+
+    private static void validate(Validator validator, PatientRequest patient) {
+        var violations = validator.validate(patient);
+        if (violations.isEmpty()) return;
+        throw new ServerWebInputException(violations.stream()
+            .map(violation -> violation.getPropertyPath() + ": " + violation.getMessage())
+            .sorted()
+            .collect(Collectors.joining("; ")));
+    }
+}
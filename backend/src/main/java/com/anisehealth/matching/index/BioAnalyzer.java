@@ -0,0 +1,67 @@
+package com.anisehealth.matching.index;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Turns free text into the terms {@link BioIndex} stores: lower-cased
+ * letter and digit runs, minus stop words, reduced by a light suffix
+ * stemmer so "approaches" and "approach", or "resilience" and "resilient",
+ * meet on one term. Bios and search text go through the same analysis, so
+ * stems only have to be consistent, not words.
+ */
+public final class BioAnalyzer {
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int MIN_STEM = 3;
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "about", "an", "and", "are", "as", "at", "be", "by", "for", "from", "has", "have", "he", "her",
+        "his", "i", "in", "is", "it", "its", "me", "my", "of", "on", "or", "our", "she", "that", "the",
+        "their", "them", "they", "this", "to", "was", "we", "who", "will", "with", "you", "your");
+    // Longest first, so each word loses at most its longest derivational suffix
+    private static final String[] SUFFIXES = {
+        "ational", "ization", "fulness", "iveness", "ousness", "ements", "ement", "ments", "ment", "ities",
+        "ness", "ence", "ance", "ings", "ing", "ions", "ion", "ity", "ive", "ful", "ous", "ent", "ant",
+        "ed", "al", "ly", "er"
+    };
+
+    private BioAnalyzer() {
+    }
+
+    /** Analyzed terms in text order, repeats included; empty for null or blank text. */
+    public static List<String> terms(String text) {
+        var terms = new ArrayList<String>();
+        if (text == null) return terms;
+        for (String word : NON_WORD.split(text.toLowerCase(Locale.ROOT))) {
+            if (word.isEmpty() || STOP_WORDS.contains(word)) continue;
+            terms.add(stem(word));
+        }
+        return terms;
+    }
+
+    static String stem(String word) {
+        String stem = plural(word);
+        for (String suffix : SUFFIXES) {
+            if (stem.endsWith(suffix) && stem.length() - suffix.length() >= MIN_STEM) {
+                stem = stem.substring(0, stem.length() - suffix.length());
+                break;
+            }
+        }
+        if (stem.endsWith("e") && stem.length() > MIN_STEM) {
+            stem = stem.substring(0, stem.length() - 1);
+        }
+        return stem;
+    }
+
+    private static String plural(String word) {
+        if (word.length() <= MIN_STEM) return word;
+        if (word.endsWith("ies")) return word.substring(0, word.length() - 3) + "y";
+        if (word.endsWith("sses")) return word.substring(0, word.length() - 2);
+        if (word.endsWith("s") && !word.endsWith("ss") && !word.endsWith("us") && !word.endsWith("is")) {
+            return word.substring(0, word.length() - 1);
+        }
+        return word;
+    }
+}
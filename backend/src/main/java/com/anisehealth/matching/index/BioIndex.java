@@ -0,0 +1,295 @@
+package com.anisehealth.matching.index;
+
+import com.anisehealth.matching.model.Provider;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inverted index over provider bios, scored with BM25. Each term's posting
+ * list is a byte array of (ordinal gap, term frequency) pairs in varint
+ * encoding, so a posting typically costs two bytes instead of the eight or
+ * more of an {@code int} pair or a bitset word. Lists are only ever read
+ * front to back, which is all gap encoding allows.
+ */
+public final class BioIndex {
+    static final double K1 = 1.2;
+    static final double B = 0.75;
+
+    private static final BioIndex EMPTY = builder().build();
+
+    private final int size;
+    private final Map<String, Integer> termIds;
+    private final byte[][] postings;
+    private final int[] documentFrequency;
+    private final int[] documentLength;
+    private final double averageLength;
+
+    private BioIndex(int size, Map<String, Integer> termIds, byte[][] postings, int[] documentFrequency,
+                     int[] documentLength) {
+        this.size = size;
+        this.termIds = termIds;
+        this.postings = postings;
+        this.documentFrequency = documentFrequency;
+        this.documentLength = documentLength;
+        this.averageLength = size > 0 ? Arrays.stream(documentLength).average().orElse(0) : 0;
+    }
+
+    public static BioIndex of(List<Provider> providers) {
+        var builder = builder();
+        providers.forEach(provider -> builder.add(provider.getBio()));
+        return builder.build();
+    }
+
+    public static BioIndex empty() {
+        return EMPTY;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Distinct terms across all bios. */
+    public int terms() {
+        return postings.length;
+    }
+
+    /** Bytes held by the encoded posting lists. */
+    public long postingBytes() {
+        long bytes = 0;
+        for (byte[] posting : postings) {
+            bytes += posting.length;
+        }
+        return bytes;
+    }
+
+    /** Writes the index in the layout {@link #read} expects; terms go in id order. */
+    public void write(DataOutput out) throws IOException {
+        var terms = new String[postings.length];
+        termIds.forEach((term, termId) -> terms[termId] = term);
+        out.writeInt(size);
+        out.writeInt(terms.length);
+        for (int termId = 0; termId < terms.length; termId++) {
+            byte[] term = terms[termId].getBytes(StandardCharsets.UTF_8);
+            out.writeInt(term.length);
+            out.write(term);
+            out.writeInt(documentFrequency[termId]);
+            out.writeInt(postings[termId].length);
+            out.write(postings[termId]);
+        }
+        for (int length : documentLength) {
+            out.writeInt(length);
+        }
+    }
+
+    public static BioIndex read(ByteBuffer in) {
+        int size = in.getInt();
+        int terms = in.getInt();
+        var termIds = new HashMap<String, Integer>(terms * 2);
+        var postings = new byte[terms][];
+        var documentFrequency = new int[terms];
+        for (int termId = 0; termId < terms; termId++) {
+            termIds.put(new String(bytes(in), StandardCharsets.UTF_8), termId);
+            documentFrequency[termId] = in.getInt();
+            postings[termId] = bytes(in);
+        }
+        var documentLength = new int[size];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            documentLength[ordinal] = in.getInt();
+        }
+        return new BioIndex(size, Map.copyOf(termIds), postings, documentFrequency, documentLength);
+    }
+
+    private static byte[] bytes(ByteBuffer in) {
+        var bytes = new byte[in.getInt()];
+        in.get(bytes);
+        return bytes;
+    }
+
+    /**
+     * BM25 relevance of every bio containing at least one of the analyzed
+     * terms. Works term at a time, so it costs the total length of the
+     * terms' posting lists rather than the roster size.
+     */
+    public Relevance relevance(List<String> terms) {
+        int[] ordinals = new int[0];
+        double[] scores = new double[0];
+        for (String term : terms.stream().distinct().toList()) {
+            Integer termId = termIds.get(term);
+            if (termId == null) continue;
+            int df = documentFrequency[termId];
+            double idf = Math.log(1 + (size - df + 0.5) / (df + 0.5));
+            int[] termOrdinals = new int[df];
+            double[] termScores = new double[df];
+            var reader = new VarintReader(postings[termId]);
+            int ordinal = 0;
+            for (int i = 0; i < df; i++) {
+                ordinal += reader.next();
+                int tf = reader.next();
+                double norm = K1 * (1 - B + B * documentLength[ordinal] / averageLength);
+                termOrdinals[i] = ordinal;
+                termScores[i] = idf * tf * (K1 + 1) / (tf + norm);
+            }
+            Relevance merged = merge(ordinals, scores, termOrdinals, termScores);
+            ordinals = merged.ordinals;
+            scores = merged.scores;
+        }
+        return new Relevance(ordinals, scores);
+    }
+
+    /** Sums two ordinal-sorted score lists into one. */
+    private static Relevance merge(int[] a, double[] aScores, int[] b, double[] bScores) {
+        int[] ordinals = new int[a.length + b.length];
+        double[] scores = new double[ordinals.length];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length || j < b.length) {
+            if (j == b.length || (i < a.length && a[i] < b[j])) {
+                ordinals[n] = a[i];
+                scores[n++] = aScores[i++];
+            } else if (i == a.length || b[j] < a[i]) {
+                ordinals[n] = b[j];
+                scores[n++] = bScores[j++];
+            } else {
+                ordinals[n] = a[i];
+                scores[n++] = aScores[i++] + bScores[j++];
+            }
+        }
+        return new Relevance(Arrays.copyOf(ordinals, n), Arrays.copyOf(scores, n));
+    }
+
+    /** BM25 scores of the bios matching a query, by ordinal; bios not listed score 0. */
+    public static final class Relevance {
+        public static final Relevance NONE = new Relevance(new int[0], new double[0]);
+
+        private final int[] ordinals;
+        private final double[] scores;
+
+        private Relevance(int[] ordinals, double[] scores) {
+            this.ordinals = ordinals;
+            this.scores = scores;
+        }
+
+        public double of(int ordinal) {
+            int i = Arrays.binarySearch(ordinals, ordinal);
+            return i >= 0 ? scores[i] : 0;
+        }
+
+        /** Number of bios with a positive score. */
+        public int size() {
+            return ordinals.length;
+        }
+
+        public int ordinal(int i) {
+            return ordinals[i];
+        }
+
+        public double score(int i) {
+            return scores[i];
+        }
+    }
+
+    public static final class Builder {
+        private final Map<String, Integer> termIds = new HashMap<>();
+        private VarintWriter[] postings = new VarintWriter[64];
+        private int[] lastOrdinal = new int[64];
+        private int[] documentFrequency = new int[64];
+        private int[] documentLength = new int[64];
+        private int size;
+
+        private Builder() {
+        }
+
+        /** Indexes the bio under the next ordinal; a null bio is indexed as empty. */
+        public int add(String bio) {
+            int ordinal = size++;
+            if (ordinal == documentLength.length) {
+                documentLength = Arrays.copyOf(documentLength, ordinal * 2);
+            }
+            List<String> terms = BioAnalyzer.terms(bio);
+            documentLength[ordinal] = terms.size();
+            var frequencies = new HashMap<String, Integer>();
+            terms.forEach(term -> frequencies.merge(term, 1, Integer::sum));
+            frequencies.forEach((term, tf) -> {
+                int termId = termIds.computeIfAbsent(term, t -> newTerm());
+                postings[termId].write(ordinal - lastOrdinal[termId]);
+                postings[termId].write(tf);
+                lastOrdinal[termId] = ordinal;
+                documentFrequency[termId]++;
+            });
+            return ordinal;
+        }
+
+        public BioIndex build() {
+            int terms = termIds.size();
+            var encoded = new byte[terms][];
+            for (int termId = 0; termId < terms; termId++) {
+                encoded[termId] = postings[termId].toByteArray();
+            }
+            return new BioIndex(size, Map.copyOf(termIds), encoded, Arrays.copyOf(documentFrequency, terms),
+                Arrays.copyOf(documentLength, size));
+        }
+
+        private int newTerm() {
+            int termId = termIds.size();
+            if (termId == postings.length) {
+                postings = Arrays.copyOf(postings, termId * 2);
+                lastOrdinal = Arrays.copyOf(lastOrdinal, termId * 2);
+                documentFrequency = Arrays.copyOf(documentFrequency, termId * 2);
+            }
+            postings[termId] = new VarintWriter();
+            return termId;
+        }
+    }
+
+    /** Unsigned LEB128: seven bits per byte, high bit set on all but the last. */
+    private static final class VarintWriter {
+        private byte[] bytes = new byte[8];
+        private int length;
+
+        void write(int value) {
+            while (true) {
+                if (length == bytes.length) bytes = Arrays.copyOf(bytes, length * 2);
+                if ((value & ~0x7F) == 0) {
+                    bytes[length++] = (byte) value;
+                    return;
+                }
+                bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+    }
+
+    private static final class VarintReader {
+        private final byte[] bytes;
+        private int position;
+
+        VarintReader(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        int next() {
+            int value = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = bytes[position++];
+                value |= (b & 0x7F) << shift;
+                if (b >= 0) return value;
+            }
+        }
+    }
+}
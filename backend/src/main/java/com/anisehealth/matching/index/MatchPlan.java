@@ -0,0 +1,147 @@
+package com.anisehealth.matching.index;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+/**
+ * Order in which the index predicates of one {@link MatchQuery} are
+ * evaluated. Each predicate's cardinality is estimated from
+ * {@link ProviderIndex} set sizes and the most selective runs first, so the
+ * candidate set shrinks as early as possible and evaluation stops once it is
+ * empty. Predicates the query leaves open ("Any" preferences, no payment
+ * method) are not planned. Capacity is not indexed and is checked while
+ * ranking, after the plan has run.
+ */
+@Value
+public class MatchPlan {
+    public enum Predicate {
+        AREAS,
+        LOCATION,
+        PAYMENT,
+        MODALITY,
+        GENDER,
+        ETHNICITY,
+        RELIGION,
+        LANGUAGE;
+
+        private final String label = name().toLowerCase(Locale.ROOT);
+
+        /** Lower-case name, as used in metric tags and {@link MatchPlan#explain()}. */
+        public String label() {
+            return label;
+        }
+    }
+
+    @Value
+    public static class Step {
+        Predicate predicate;
+        /** Providers the predicate alone would keep; an upper bound for multi-term predicates. */
+        int estimatedCandidates;
+    }
+
+    int rosterSize;
+    List<Step> steps;
+    @JsonIgnore
+    MatchQuery query;
+
+    /** Plans the query against the index, cheapest estimate first and ties in {@link Predicate} order. */
+    public static MatchPlan of(ProviderIndex index, MatchQuery query) {
+        return of(index, query, EnumSet.noneOf(Predicate.class));
+    }
+
+    /** Plans the query without the {@code omitted} predicates, e.g. to apply them separately. */
+    public static MatchPlan of(ProviderIndex index, MatchQuery query, Set<Predicate> omitted) {
+        var steps = new ArrayList<Step>(Predicate.values().length);
+        for (Predicate predicate : Predicate.values()) {
+            if (appliesTo(predicate, query) && !omitted.contains(predicate)) {
+                steps.add(new Step(predicate, estimate(predicate, index, query)));
+            }
+        }
+        // Stable, so equal estimates keep the declared order
+        steps.sort(Comparator.comparingInt(Step::getEstimatedCandidates));
+        return new MatchPlan(index.size(), List.copyOf(steps), query);
+    }
+
+    /**
+     * Runs the plan and returns the providers passing every step.
+     * {@code afterEach} sees the survivors of each step as it completes;
+     * steps after the candidates run out are skipped.
+     */
+    public BitSet execute(ProviderIndex index, BiConsumer<Predicate, BitSet> afterEach) {
+        BitSet candidates = null;
+        for (Step step : steps) {
+            candidates = candidates == null ? select(step.predicate, index) : retain(step.predicate, index, candidates);
+            afterEach.accept(step.predicate, candidates);
+            if (candidates.isEmpty()) break;
+        }
+        return candidates != null ? candidates : index.all();
+    }
+
+    /** The chosen order with estimates, e.g. {@code language~12 > location~340 > areas~900 of 1000}. */
+    public String explain() {
+        return steps.stream()
+            .map(step -> step.predicate.label + "~" + step.estimatedCandidates)
+            .collect(Collectors.joining(" > ", "", " of " + rosterSize));
+    }
+
+    /** False when the query leaves the predicate open, so it would keep every provider. */
+    public static boolean appliesTo(Predicate predicate, MatchQuery query) {
+        return switch (predicate) {
+            case AREAS, LOCATION, MODALITY -> true;
+            case PAYMENT -> query.getPaymentMethod() != null;
+            case GENDER -> query.getPreferredGenderId() != MatchQuery.ANY;
+            case ETHNICITY -> query.getPreferredEthnicityId() != MatchQuery.ANY;
+            case RELIGION -> query.getPreferredReligionId() != MatchQuery.ANY;
+            case LANGUAGE -> query.getPreferredLanguageId() != MatchQuery.ANY;
+        };
+    }
+
+    private static int estimate(Predicate predicate, ProviderIndex index, MatchQuery query) {
+        return switch (predicate) {
+            case AREAS -> index.estimateAnyOf(ProviderIndex.Field.SPECIALIZATION_AREA, query.getAreaIds());
+            case LOCATION -> index.estimateLocated(query.getLocationMask());
+            case PAYMENT -> index.countPaymentEligible(query.getPaymentMethod(), query.getInsuranceProvider());
+            case MODALITY -> index.estimateAnyOf(ProviderIndex.Field.TREATMENT_MODALITY, query.getModalityIds());
+            case GENDER -> index.count(ProviderIndex.Field.GENDER, query.getPreferredGenderId());
+            case ETHNICITY -> index.count(ProviderIndex.Field.ETHNICITY, query.getPreferredEthnicityId());
+            case RELIGION -> index.count(ProviderIndex.Field.RELIGION, query.getPreferredReligionId());
+            case LANGUAGE -> index.count(ProviderIndex.Field.LANGUAGE, query.getPreferredLanguageId());
+        };
+    }
+
+    /**
+     * Returns a new set of the providers satisfying one predicate of the
+     * query; unions are built directly rather than narrowed from the roster.
+     */
+    public BitSet select(Predicate predicate, ProviderIndex index) {
+        return switch (predicate) {
+            case AREAS -> index.anyOf(ProviderIndex.Field.SPECIALIZATION_AREA, query.getAreaIds());
+            case MODALITY -> index.anyOf(ProviderIndex.Field.TREATMENT_MODALITY, query.getModalityIds());
+            default -> retain(predicate, index, index.all());
+        };
+    }
+
+    private BitSet retain(Predicate predicate, ProviderIndex index, BitSet candidates) {
+        switch (predicate) {
+            case AREAS -> candidates.and(index.anyOf(ProviderIndex.Field.SPECIALIZATION_AREA, query.getAreaIds()));
+            case LOCATION -> index.retainLocated(candidates, query.getLocationMask());
+            case PAYMENT -> index.retainPaymentEligible(candidates, query.getPaymentMethod(), query.getInsuranceProvider());
+            case MODALITY -> candidates.and(index.anyOf(ProviderIndex.Field.TREATMENT_MODALITY, query.getModalityIds()));
+            case GENDER -> index.retainMatching(candidates, ProviderIndex.Field.GENDER, query.getPreferredGenderId());
+            case ETHNICITY -> index.retainMatching(candidates, ProviderIndex.Field.ETHNICITY, query.getPreferredEthnicityId());
+            case RELIGION -> index.retainMatching(candidates, ProviderIndex.Field.RELIGION, query.getPreferredReligionId());
+            case LANGUAGE -> index.retainMatching(candidates, ProviderIndex.Field.LANGUAGE, query.getPreferredLanguageId());
+        }
+        return candidates;
+    }
+}
@@ -0,0 +1,82 @@
+package com.anisehealth.matching.index;
+
+import com.anisehealth.matching.model.PatientRequest;
+import com.anisehealth.matching.model.UsState;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import org.springframework.util.StringUtils;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * A {@link PatientRequest} resolved once against the {@link TermDictionary}
+ * of the roster snapshot it will run on, so the matching pipeline only deals
+ * with term ids. Two requests that differ only in case, term order, synonyms
+ * or "Any" preferences resolve to equal queries on the same snapshot, which
+ * makes a query a canonical cache key within one roster version.
+ */
+@Getter
+@EqualsAndHashCode
+public final class MatchQuery {
+    /** Marks a therapist preference that was left blank or set to "Any". */
+    public static final int ANY = -2;
+
+    private final long locationMask;
+    private final int[] areaIds;
+    private final int[] modalityIds;
+    private final int preferredGenderId;
+    private final int preferredEthnicityId;
+    private final int preferredReligionId;
+    private final int preferredLanguageId;
+    private final PatientRequest.PaymentMethod paymentMethod;
+    private final PatientRequest.InsuranceProvider insuranceProvider;
+    /** Distinct {@link BioAnalyzer} terms of the request's bio query, sorted; empty when none was given. */
+    private final List<String> bioTerms;
+
+    private MatchQuery(PatientRequest request, TermDictionary dictionary, TermNormalizer normalizer) {
+        paymentMethod = request.getPaymentMethod();
+        insuranceProvider = request.getInsuranceProvider();
+        locationMask = UsState.parseMask(request.getLocation());
+        areaIds = lookupAll(request.getAreasOfConcern(), normalizer::normalizeArea, dictionary);
+        modalityIds = lookupAll(request.getTreatmentModality(), normalizer::normalizeModality, dictionary);
+        bioTerms = BioAnalyzer.terms(request.getBioQuery()).stream().distinct().sorted().toList();
+
+        var preferences = request.getTherapistPreferences();
+        if (preferences == null) {
+            preferredGenderId = ANY;
+            preferredEthnicityId = ANY;
+            preferredReligionId = ANY;
+            preferredLanguageId = ANY;
+        } else {
+            preferredGenderId = lookupPreference(preferences.getPreferredGender(), dictionary);
+            preferredEthnicityId = lookupPreference(preferences.getPreferredEthnicity(), dictionary);
+            preferredReligionId = lookupPreference(preferences.getPreferredReligion(), dictionary);
+            preferredLanguageId = lookupPreference(preferences.getPreferredLanguage(), dictionary);
+        }
+    }
+
+    /** Resolves the request against {@code dictionary}, which must be the dictionary of the roster it runs on. */
+    public static MatchQuery of(PatientRequest request, TermDictionary dictionary) {
+        return new MatchQuery(request, dictionary, TermNormalizer.defaultInstance());
+    }
+
+    /** Normalizes the terms the same way the roster was, so "Cognitive Behavioral Therapy" finds CBT providers. */
+    private static int[] lookupAll(List<String> terms, UnaryOperator<String> normalize, TermDictionary dictionary) {
+        if (terms == null) return new int[0];
+        return terms.stream()
+            .filter(Objects::nonNull)
+            .map(normalize)
+            .mapToInt(dictionary::lookup)
+            .filter(id -> id != TermDictionary.UNKNOWN)
+            .distinct()
+            .sorted()
+            .toArray();
+    }
+
+    private static int lookupPreference(String preference, TermDictionary dictionary) {
+        if (!StringUtils.hasText(preference) || "Any".equalsIgnoreCase(preference)) return ANY;
+        return dictionary.lookup(preference);
+    }
+}
@@ -0,0 +1,430 @@
+package com.anisehealth.matching.index;
+
+import com.anisehealth.matching.model.PatientRequest;
+import com.anisehealth.matching.model.Provider;
+import com.anisehealth.matching.model.UsState;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.IntStream;
+
+/**
+ * Inverted index over the provider roster. Each categorical field maps a
+ * {@link TermDictionary} id to a posting list of roster ordinals, so a match
+ * request becomes a handful of bitset unions and intersections instead of a scan.
+ */
+public final class ProviderIndex {
+
+    public enum Field {
+        SPECIALIZATION_AREA,
+        TREATMENT_MODALITY,
+        LANGUAGE,
+        GENDER,
+        ETHNICITY,
+        RELIGION
+    }
+
+    private static final BitSet EMPTY = new BitSet();
+    private static final PatientRequest.PaymentMethod[] PAYMENT_METHODS = PatientRequest.PaymentMethod.values();
+    private static final PatientRequest.InsuranceProvider[] INSURERS = PatientRequest.InsuranceProvider.values();
+    private static final UsState[] STATES = UsState.values();
+
+    private final int size;
+    private final Map<Field, List<BitSet>> postings;
+    private final int[] tieBreakRanks;
+    // [payment method][insurer + 1, or 0 when no insurer was given]
+    private final BitSet[][] paymentEligible;
+    private final BitSet[] byState;
+    // Set sizes kept alongside the sets so the planner can estimate without counting bits
+    private final Map<Field, int[]> postingSizes = new EnumMap<>(Field.class);
+    private final int[][] paymentEligibleSizes;
+    private final int[] stateSizes;
+
+    private ProviderIndex(int size, Map<Field, List<BitSet>> postings, int[] tieBreakRanks,
+                          BitSet[][] paymentEligible, BitSet[] byState) {
+        this.size = size;
+        this.postings = postings;
+        this.tieBreakRanks = tieBreakRanks;
+        this.paymentEligible = paymentEligible;
+        this.byState = byState;
+        postings.forEach((field, byTerm) -> postingSizes.put(field,
+            byTerm.stream().mapToInt(posting -> posting != null ? posting.cardinality() : 0).toArray()));
+        paymentEligibleSizes = new int[paymentEligible.length][];
+        for (int method = 0; method < paymentEligible.length; method++) {
+            paymentEligibleSizes[method] = Arrays.stream(paymentEligible[method]).mapToInt(BitSet::cardinality).toArray();
+        }
+        stateSizes = Arrays.stream(byState).mapToInt(BitSet::cardinality).toArray();
+    }
+
+    public static ProviderIndex of(List<Provider> providers) {
+        var builder = builder();
+        providers.forEach(builder::add);
+        return builder.build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Number of providers indexed; ordinals run from 0 to {@code size() - 1}. */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Position of the provider when the roster is ordered by last name, first
+     * name and load order. Used to break score ties independently of CSV order.
+     */
+    public int tieBreakRank(int ordinal) {
+        return tieBreakRanks[ordinal];
+    }
+
+    /** Returns a new set of every provider carrying at least one of the given term ids. */
+    public BitSet anyOf(Field field, int[] termIds) {
+        var result = new BitSet(size);
+        for (int termId : termIds) {
+            result.or(posting(field, termId));
+        }
+        return result;
+    }
+
+    /** Returns a new set of the whole roster. */
+    public BitSet all() {
+        var all = new BitSet(size);
+        all.set(0, size);
+        return all;
+    }
+
+    /** Number of providers carrying the given term id. */
+    public int count(Field field, int termId) {
+        int[] sizes = postingSizes.get(field);
+        return termId >= 0 && termId < sizes.length ? sizes[termId] : 0;
+    }
+
+    /**
+     * Estimated number of providers carrying at least one of the term ids:
+     * the sum of the posting sizes, capped at the roster size. Exact for a
+     * single id and an upper bound otherwise.
+     */
+    public int estimateAnyOf(Field field, int[] termIds) {
+        long total = 0;
+        for (int termId : termIds) {
+            total += count(field, termId);
+        }
+        return (int) Math.min(total, size);
+    }
+
+    /** Estimated number of providers practicing in any of the states in the mask; an upper bound like {@link #estimateAnyOf}. */
+    public int estimateLocated(long stateMask) {
+        long total = 0;
+        for (long remaining = stateMask; remaining != 0; remaining &= remaining - 1) {
+            total += stateSizes[Long.numberOfTrailingZeros(remaining)];
+        }
+        return (int) Math.min(total, size);
+    }
+
+    /** Number of providers {@link #retainPaymentEligible} keeps; the whole roster when no method is given. */
+    public int countPaymentEligible(PatientRequest.PaymentMethod method, PatientRequest.InsuranceProvider insurer) {
+        if (method == null) return size;
+        return paymentEligibleSizes[method.ordinal()][insurerSlot(method, insurer)];
+    }
+
+    /** Narrows {@code candidates} to the providers carrying the given term id. */
+    public void retainMatching(BitSet candidates, Field field, int termId) {
+        candidates.and(posting(field, termId));
+    }
+
+    /** Narrows {@code candidates} to providers practicing in any of the states in the {@link UsState} mask. */
+    public void retainLocated(BitSet candidates, long stateMask) {
+        if (Long.bitCount(stateMask) == 1) {
+            candidates.and(byState[Long.numberOfTrailingZeros(stateMask)]);
+            return;
+        }
+        var located = new BitSet(size);
+        for (long remaining = stateMask; remaining != 0; remaining &= remaining - 1) {
+            located.or(byState[Long.numberOfTrailingZeros(remaining)]);
+        }
+        candidates.and(located);
+    }
+
+    /**
+     * Narrows {@code candidates} to providers that accept the payment method
+     * and, for insurance, the insurer. Providers whose roster row lists no
+     * payment methods (or no insurers) are treated as accepting any.
+     */
+    public void retainPaymentEligible(BitSet candidates, PatientRequest.PaymentMethod method,
+                                      PatientRequest.InsuranceProvider insurer) {
+        if (method == null) return;
+        candidates.and(paymentEligible[method.ordinal()][insurerSlot(method, insurer)]);
+    }
+
+    /** The {@link UsState} mask of the states the provider practices in. */
+    public long stateMask(int ordinal) {
+        long mask = 0;
+        for (int state = 0; state < byState.length; state++) {
+            if (byState[state].get(ordinal)) mask |= 1L << state;
+        }
+        return mask;
+    }
+
+    private static int insurerSlot(PatientRequest.PaymentMethod method, PatientRequest.InsuranceProvider insurer) {
+        return method == PatientRequest.PaymentMethod.INSURANCE && insurer != null ? insurer.ordinal() + 1 : 0;
+    }
+
+    /**
+     * Writes the built index for {@link #read}. Posting lists are keyed by
+     * ids of the roster's {@link TermDictionary}.
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        out.writeInt(Field.values().length);
+        out.writeInt(PAYMENT_METHODS.length);
+        out.writeInt(INSURERS.length);
+        out.writeInt(STATES.length);
+        for (Field field : Field.values()) {
+            List<BitSet> byTerm = postings.get(field);
+            out.writeInt((int) byTerm.stream().filter(Objects::nonNull).count());
+            for (int termId = 0; termId < byTerm.size(); termId++) {
+                if (byTerm.get(termId) == null) continue;
+                out.writeInt(termId);
+                writeBits(out, byTerm.get(termId));
+            }
+        }
+        for (int rank : tieBreakRanks) {
+            out.writeInt(rank);
+        }
+        for (BitSet[] byInsurer : paymentEligible) {
+            for (BitSet eligible : byInsurer) {
+                writeBits(out, eligible);
+            }
+        }
+        for (BitSet located : byState) {
+            writeBits(out, located);
+        }
+    }
+
+    /**
+     * Reads an index written by {@link #write}, translating each written term
+     * id through {@code termIds} into the current dictionary's id.
+     *
+     * @throws IllegalStateException if the index was written with a different field or enum layout
+     */
+    public static ProviderIndex read(ByteBuffer in, int[] termIds) {
+        int size = in.getInt();
+        if (in.getInt() != Field.values().length || in.getInt() != PAYMENT_METHODS.length
+            || in.getInt() != INSURERS.length || in.getInt() != STATES.length) {
+            throw new IllegalStateException("Index was written with a different field layout");
+        }
+        var postings = new EnumMap<Field, List<BitSet>>(Field.class);
+        for (Field field : Field.values()) {
+            var byTerm = new ArrayList<BitSet>();
+            for (int count = in.getInt(); count > 0; count--) {
+                int termId = termIds[in.getInt()];
+                while (byTerm.size() <= termId) {
+                    byTerm.add(null);
+                }
+                byTerm.set(termId, readBits(in));
+            }
+            postings.put(field, byTerm);
+        }
+        int[] tieBreakRanks = new int[size];
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            tieBreakRanks[ordinal] = in.getInt();
+        }
+        var paymentEligible = new BitSet[PAYMENT_METHODS.length][INSURERS.length + 1];
+        for (BitSet[] byInsurer : paymentEligible) {
+            for (int slot = 0; slot < byInsurer.length; slot++) {
+                byInsurer[slot] = readBits(in);
+            }
+        }
+        var byState = new BitSet[STATES.length];
+        for (int state = 0; state < byState.length; state++) {
+            byState[state] = readBits(in);
+        }
+        return new ProviderIndex(size, postings, tieBreakRanks, paymentEligible, byState);
+    }
+
+    private static void writeBits(DataOutput out, BitSet bits) throws IOException {
+        long[] words = bits.toLongArray();
+        out.writeInt(words.length);
+        for (long word : words) {
+            out.writeLong(word);
+        }
+    }
+
+    private static BitSet readBits(ByteBuffer in) {
+        int words = in.getInt();
+        BitSet bits = BitSet.valueOf(in.slice().asLongBuffer().limit(words));
+        in.position(in.position() + words * Long.BYTES);
+        return bits;
+    }
+
+    private BitSet posting(Field field, int termId) {
+        List<BitSet> byTerm = postings.get(field);
+        if (termId < 0 || termId >= byTerm.size()) return EMPTY;
+        BitSet posting = byTerm.get(termId);
+        return posting != null ? posting : EMPTY;
+    }
+
+    public static final class Builder {
+        private final Map<Field, List<BitSet>> postings = new EnumMap<>(Field.class);
+        private final List<String> sortKeys = new ArrayList<>();
+        private final BitSet[] byPaymentMethod = newBitSets(PAYMENT_METHODS.length);
+        private final BitSet[] byInsurer = newBitSets(INSURERS.length);
+        private final BitSet paymentUnspecified = new BitSet();
+        private final BitSet insurerUnspecified = new BitSet();
+        private final BitSet[] byState = newBitSets(STATES.length);
+        private int size;
+
+        private Builder() {
+            for (Field field : Field.values()) {
+                postings.put(field, new ArrayList<>());
+            }
+        }
+
+        /** Adds the provider under the next ordinal and returns that ordinal. */
+        public int add(Provider provider) {
+            int ordinal = size++;
+            addAll(Field.SPECIALIZATION_AREA, provider.getSpecializationAreaIds(), ordinal);
+            addAll(Field.TREATMENT_MODALITY, provider.getTreatmentModalityIds(), ordinal);
+            addAll(Field.LANGUAGE, provider.getLanguageIds(), ordinal);
+            addTerm(Field.GENDER, provider.getGenderId(), ordinal);
+            addTerm(Field.ETHNICITY, provider.getEthnicityId(), ordinal);
+            addTerm(Field.RELIGION, provider.getReligionId(), ordinal);
+            sortKeys.add(sortKey(provider));
+            addMask(byPaymentMethod, paymentUnspecified, provider.getPaymentMethodMask(), ordinal);
+            addMask(byInsurer, insurerUnspecified, provider.getInsuranceProviderMask(), ordinal);
+            for (long states = provider.getLocationMask(); states != 0; states &= states - 1) {
+                byState[Long.numberOfTrailingZeros(states)].set(ordinal);
+            }
+            return ordinal;
+        }
+
+        /**
+         * Appends everything a partial builder indexed, shifting its ordinals
+         * past the ones already here and its term ids through {@code termIds},
+         * which maps the partial's dictionary onto this one. Merging partials
+         * in load order gives the same index as adding their providers one by
+         * one.
+         */
+        public Builder addAll(Builder partial, int[] termIds) {
+            int offset = size;
+            for (Field field : Field.values()) {
+                List<BitSet> byTerm = partial.postings.get(field);
+                for (int termId = 0; termId < byTerm.size(); termId++) {
+                    if (byTerm.get(termId) != null) {
+                        orShifted(posting(field, termIds[termId]), byTerm.get(termId), offset);
+                    }
+                }
+            }
+            sortKeys.addAll(partial.sortKeys);
+            orShifted(byPaymentMethod, partial.byPaymentMethod, offset);
+            orShifted(byInsurer, partial.byInsurer, offset);
+            orShifted(paymentUnspecified, partial.paymentUnspecified, offset);
+            orShifted(insurerUnspecified, partial.insurerUnspecified, offset);
+            orShifted(byState, partial.byState, offset);
+            size += partial.size;
+            return this;
+        }
+
+        public int size() {
+            return size;
+        }
+
+        public ProviderIndex build() {
+            int[] ranks = new int[size];
+            int[] byName = IntStream.range(0, size).boxed()
+                .sorted(Comparator.comparing(sortKeys::get).thenComparingInt(ordinal -> ordinal))
+                .mapToInt(Integer::intValue)
+                .toArray();
+            for (int rank = 0; rank < size; rank++) {
+                ranks[byName[rank]] = rank;
+            }
+            return new ProviderIndex(size, postings, ranks, buildPaymentEligibility(), byState);
+        }
+
+        private BitSet[][] buildPaymentEligibility() {
+            var eligible = new BitSet[PAYMENT_METHODS.length][INSURERS.length + 1];
+            for (var method : PAYMENT_METHODS) {
+                var acceptsMethod = (BitSet) byPaymentMethod[method.ordinal()].clone();
+                acceptsMethod.or(paymentUnspecified);
+                eligible[method.ordinal()][0] = acceptsMethod;
+                for (var insurer : INSURERS) {
+                    var acceptsInsurer = (BitSet) byInsurer[insurer.ordinal()].clone();
+                    acceptsInsurer.or(insurerUnspecified);
+                    acceptsInsurer.and(acceptsMethod);
+                    eligible[method.ordinal()][insurer.ordinal() + 1] = acceptsInsurer;
+                }
+            }
+            return eligible;
+        }
+
+        private static BitSet[] newBitSets(int count) {
+            var bitSets = new BitSet[count];
+            for (int i = 0; i < count; i++) {
+                bitSets[i] = new BitSet();
+            }
+            return bitSets;
+        }
+
+        private static void addMask(BitSet[] byOrdinal, BitSet unspecified, int mask, int ordinal) {
+            if (mask == 0) {
+                unspecified.set(ordinal);
+                return;
+            }
+            for (int bit = 0; bit < byOrdinal.length; bit++) {
+                if ((mask & (1 << bit)) != 0) byOrdinal[bit].set(ordinal);
+            }
+        }
+
+        private static String sortKey(Provider provider) {
+            String lastName = provider.getLastName() != null ? provider.getLastName() : "";
+            String firstName = provider.getFirstName() != null ? provider.getFirstName() : "";
+            return (lastName + '\u0000' + firstName).toLowerCase(Locale.ROOT);
+        }
+
+        private void addAll(Field field, int[] termIds, int ordinal) {
+            for (int termId : termIds) {
+                addTerm(field, termId, ordinal);
+            }
+        }
+
+        private void addTerm(Field field, int termId, int ordinal) {
+            if (termId < 0) return;
+            posting(field, termId).set(ordinal);
+        }
+
+        private BitSet posting(Field field, int termId) {
+            List<BitSet> byTerm = postings.get(field);
+            while (byTerm.size() <= termId) {
+                byTerm.add(null);
+            }
+            if (byTerm.get(termId) == null) {
+                byTerm.set(termId, new BitSet());
+            }
+            return byTerm.get(termId);
+        }
+
+        private static void orShifted(BitSet[] targets, BitSet[] sources, int offset) {
+            for (int i = 0; i < targets.length; i++) {
+                orShifted(targets[i], sources[i], offset);
+            }
+        }
+
+        private static void orShifted(BitSet target, BitSet source, int offset) {
+            for (int ordinal = source.nextSetBit(0); ordinal >= 0; ordinal = source.nextSetBit(ordinal + 1)) {
+                target.set(ordinal + offset);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.anisehealth.matching.index;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Interns normalized categorical terms (languages, modalities, areas,
+ * identities) to dense int ids so matching can compare ints instead of
+ * strings. Each roster snapshot builds its own dictionary, assigning ids in
+ * order of first appearance in the roster, so ids are only meaningful
+ * against that snapshot's index and terms dropped from the roster are not
+ * kept by the next one.
+ *
+ * <p>Not thread-safe: only the thread building a roster (or a chunk of one)
+ * interns terms, and the dictionary is read-only once its snapshot is
+ * published, so lookups take no lock.
+ */
+public final class TermDictionary {
+    public static final int UNKNOWN = -1;
+
+    private final Map<String, Integer> ids = new HashMap<>();
+    private final List<String> terms = new ArrayList<>();
+
+    public TermDictionary() {
+    }
+
+    public static String normalize(String term) {
+        return term.toLowerCase(Locale.ROOT);
+    }
+
+    /** Returns the id for the term, assigning the next free id if it has not been seen. */
+    public int intern(String term) {
+        return ids.computeIfAbsent(normalize(term), key -> {
+            terms.add(key);
+            return terms.size() - 1;
+        });
+    }
+
+    /** Returns the id for the term, or {@link #UNKNOWN} when no provider carries it. */
+    public int lookup(String term) {
+        if (term == null) return UNKNOWN;
+        return ids.getOrDefault(normalize(term), UNKNOWN);
+    }
+
+    public String term(int id) {
+        return terms.get(id);
+    }
+
+    public int size() {
+        return terms.size();
+    }
+}
@@ -0,0 +1,223 @@
+package com.anisehealth.matching.index;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Maps free-text treatment modalities and specialization areas to their
+ * canonical terms using the synonym table in {@code term-synonyms.csv}.
+ * Every "contains" synonym of a field is compiled into one Aho-Corasick
+ * automaton, so a raw term is normalized in a single case-insensitive pass
+ * however many synonyms the table lists.
+ */
+public final class TermNormalizer {
+    static final String DEFAULT_TABLE = "/term-synonyms.csv";
+
+    private static final Pattern PARENTHESIZED = Pattern.compile("\\s*\\([^)]*\\)\\s*");
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    private final Map<ProviderIndex.Field, Rules> rules;
+
+    private TermNormalizer(Map<ProviderIndex.Field, Rules> rules) {
+        this.rules = rules;
+    }
+
+    /** The normalizer compiled from the bundled synonym table. */
+    public static TermNormalizer defaultInstance() {
+        return DefaultHolder.INSTANCE;
+    }
+
+    /**
+     * Compiles a synonym table with one {@code field,match,synonym,canonical}
+     * rule per line, where match is {@code exact} or {@code contains}. Blank
+     * lines and lines starting with {@code #} are skipped.
+     */
+    public static TermNormalizer load(InputStream table) throws IOException {
+        var builders = new EnumMap<ProviderIndex.Field, Rules.Builder>(ProviderIndex.Field.class);
+        try (var reader = new BufferedReader(new InputStreamReader(table, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || line.startsWith("#")) continue;
+                String[] columns = line.split(",", -1);
+                if (columns.length != 4) {
+                    throw new IllegalArgumentException("Synonym table line " + lineNumber + " needs 4 columns: " + line);
+                }
+                var field = ProviderIndex.Field.valueOf(columns[0].trim());
+                builders.computeIfAbsent(field, f -> new Rules.Builder())
+                    .add(columns[1].trim(), columns[2].trim(), columns[3].trim(), lineNumber);
+            }
+        }
+        var rules = new EnumMap<ProviderIndex.Field, Rules>(ProviderIndex.Field.class);
+        builders.forEach((field, builder) -> rules.put(field, builder.build()));
+        return new TermNormalizer(rules);
+    }
+
+    public String normalizeModality(String modality) {
+        String normalized = normalize(ProviderIndex.Field.TREATMENT_MODALITY, modality);
+        if (normalized != null) return normalized;
+        // Drop qualifiers such as "Psychodynamic (insight-oriented)"
+        return PARENTHESIZED.matcher(modality.trim()).replaceAll("").trim();
+    }
+
+    public String normalizeArea(String area) {
+        String normalized = normalize(ProviderIndex.Field.SPECIALIZATION_AREA, area);
+        return normalized != null ? normalized : area.trim();
+    }
+
+    /** Returns the canonical term of the highest-priority matching rule, or null when none match. */
+    private String normalize(ProviderIndex.Field field, String term) {
+        Rules fieldRules = rules.get(field);
+        return fieldRules != null ? fieldRules.canonical(term.trim()) : null;
+    }
+
+    private static final class DefaultHolder {
+        static final TermNormalizer INSTANCE = loadDefault();
+
+        private static TermNormalizer loadDefault() {
+            try (InputStream table = TermNormalizer.class.getResourceAsStream(DEFAULT_TABLE)) {
+                if (table == null) throw new IllegalStateException("Missing synonym table " + DEFAULT_TABLE);
+                return load(table);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /** The compiled rules of one field. Priorities are table positions; lower wins. */
+    private static final class Rules {
+        private final Map<String, Integer> exact;
+        private final Automaton contains;
+        private final List<String> canonical;
+
+        private Rules(Map<String, Integer> exact, Automaton contains, List<String> canonical) {
+            this.exact = exact;
+            this.contains = contains;
+            this.canonical = canonical;
+        }
+
+        String canonical(String term) {
+            int priority = Math.min(exact.getOrDefault(term.toLowerCase(Locale.ROOT), NO_MATCH), contains.firstRule(term));
+            return priority != NO_MATCH ? canonical.get(priority) : null;
+        }
+
+        static final class Builder {
+            private final Map<String, Integer> exact = new HashMap<>();
+            private final Automaton.Builder contains = new Automaton.Builder();
+            private final List<String> canonical = new ArrayList<>();
+
+            void add(String match, String synonym, String canonicalTerm, int lineNumber) {
+                if (synonym.isEmpty() || canonicalTerm.isEmpty()) {
+                    throw new IllegalArgumentException("Synonym table line " + lineNumber + " has an empty term");
+                }
+                int priority = canonical.size();
+                switch (match) {
+                    case "exact" -> exact.putIfAbsent(synonym.toLowerCase(Locale.ROOT), priority);
+                    case "contains" -> contains.add(synonym, priority);
+                    default -> throw new IllegalArgumentException(
+                        "Synonym table line " + lineNumber + " has unknown match type " + match);
+                }
+                canonical.add(canonicalTerm);
+            }
+
+            Rules build() {
+                return new Rules(Map.copyOf(exact), contains.build(), List.copyOf(canonical));
+            }
+        }
+    }
+
+    /**
+     * Aho-Corasick automaton over lowercase synonyms. Each state records the
+     * best (lowest) rule priority among the synonyms ending there or at any
+     * of its suffix states, so a scan only has to track one minimum.
+     */
+    private static final class Automaton {
+        private final List<Map<Character, Integer>> next;
+        private final int[] fail;
+        private final int[] best;
+
+        private Automaton(List<Map<Character, Integer>> next, int[] fail, int[] best) {
+            this.next = next;
+            this.fail = fail;
+            this.best = best;
+        }
+
+        /** Returns the lowest priority of any synonym occurring in the text, or {@link #NO_MATCH}. */
+        int firstRule(String text) {
+            int state = 0;
+            int first = NO_MATCH;
+            for (int i = 0; i < text.length(); i++) {
+                char c = Character.toLowerCase(text.charAt(i));
+                Integer target;
+                while ((target = next.get(state).get(c)) == null && state != 0) {
+                    state = fail[state];
+                }
+                state = target != null ? target : 0;
+                first = Math.min(first, best[state]);
+            }
+            return first;
+        }
+
+        static final class Builder {
+            private final List<Map<Character, Integer>> next = new ArrayList<>(List.of(new HashMap<>()));
+            private final List<Integer> priorities = new ArrayList<>(List.of(NO_MATCH));
+
+            void add(String synonym, int priority) {
+                int state = 0;
+                for (char c : synonym.toLowerCase(Locale.ROOT).toCharArray()) {
+                    Integer target = next.get(state).get(c);
+                    if (target == null) {
+                        target = next.size();
+                        next.add(new HashMap<>());
+                        priorities.add(NO_MATCH);
+                        next.get(state).put(c, target);
+                    }
+                    state = target;
+                }
+                priorities.set(state, Math.min(priorities.get(state), priority));
+            }
+
+            /** Links every state to its longest proper suffix state, breadth first. */
+            Automaton build() {
+                int states = next.size();
+                int[] fail = new int[states];
+                int[] best = new int[states];
+                best[0] = NO_MATCH;
+                int[] queue = new int[states];
+                int head = 0;
+                int tail = 0;
+                for (int child : next.get(0).values()) {
+                    best[child] = priorities.get(child);
+                    queue[tail++] = child;
+                }
+                while (head < tail) {
+                    int state = queue[head++];
+                    for (var edge : next.get(state).entrySet()) {
+                        int child = edge.getValue();
+                        int suffix = fail[state];
+                        while (suffix != 0 && !next.get(suffix).containsKey(edge.getKey())) {
+                            suffix = fail[suffix];
+                        }
+                        Integer target = next.get(suffix).get(edge.getKey());
+                        fail[child] = target != null && target != child ? target : 0;
+                        best[child] = Math.min(priorities.get(child), best[fail[child]]);
+                        queue[tail++] = child;
+                    }
+                }
+                return new Automaton(next.stream().map(Map::copyOf).toList(), fail, best);
+            }
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.anisehealth.matching.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+import java.util.List;
+
+/** One line of a batch match response, for the request at {@code index} in the batch. */
+@Value
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchMatchResult {
+    int index;
+    List<Provider> matches;
+    /** The provider holding a batch slot for this patient; only set for capacity-aware batches. */
+    String assignedProviderId;
+}
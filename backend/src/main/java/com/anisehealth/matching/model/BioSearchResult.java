@@ -0,0 +1,12 @@
+package com.anisehealth.matching.model;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.Value;
+
+/** A provider found by bio search, serialized as the provider plus its BM25 relevance. */
+@Value
+public class BioSearchResult {
+    @JsonUnwrapped
+    Provider provider;
+    double relevance;
+}
@@ -0,0 +1,35 @@
+package com.anisehealth.matching.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+import java.util.List;
+
+/** Providers assigned across a whole batch of patients, at most one each. */
+@Value
+public class BulkAssignment {
+    Strategy strategy;
+    /** One entry per request, in request order. */
+    List<Assignment> assignments;
+    long totalScore;
+    int assignedPatients;
+
+    public enum Strategy {
+        /**
+         * Maximizes the total match score of the batch: exactly below 16
+         * patients, otherwise to within one point per 16 patients.
+         */
+        AUCTION,
+        /** Gives each patient, in request order, their best provider with a slot left. */
+        GREEDY
+    }
+
+    @Value
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Assignment {
+        int index;
+        /** Null when no eligible provider had a slot left for this patient. */
+        String providerId;
+        Integer score;
+    }
+}
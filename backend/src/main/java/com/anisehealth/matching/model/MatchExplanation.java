@@ -0,0 +1,50 @@
+package com.anisehealth.matching.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Value;
+
+import java.util.List;
+import java.util.Map;
+
+/** How one match request narrowed the roster stage by stage, and why the top matches ranked as they did. */
+@Value
+public class MatchExplanation {
+    int rosterSize;
+    /** The chosen filter order with estimated candidates per filter. */
+    String plan;
+    /** Stages in the order they ran; stages after the candidates ran out are not listed. */
+    List<Stage> stages;
+    /** The matches the request returns, best first. */
+    List<RankedMatch> matches;
+
+    @Value
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Stage {
+        String name;
+        /** What the request asked of this stage. */
+        String requested;
+        /** The planner's estimate; null for the capacity check, which is not indexed. */
+        Integer estimatedCandidates;
+        int candidatesIn;
+        int candidatesOut;
+        /** A few of the providers this stage rejected. */
+        List<Exclusion> excluded;
+    }
+
+    @Value
+    public static class Exclusion {
+        String providerId;
+        String name;
+        /** The provider's own value for the field that rejected it. */
+        String providerValue;
+    }
+
+    @Value
+    public static class RankedMatch {
+        String providerId;
+        String name;
+        int score;
+        /** Named contributions summing to {@code score}. */
+        Map<String, Integer> breakdown;
+    }
+}
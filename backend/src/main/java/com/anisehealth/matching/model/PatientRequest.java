@@ -1,8 +1,11 @@
 package com.anisehealth.matching.model;
 
 import lombok.Data;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import jakarta.validation.Valid;
 import java.util.List;
 import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
@@ -35,6 +38,14 @@ public class PatientRequest {
     @JsonDeserialize(using = InsuranceProviderDeserializer.class)
     private InsuranceProvider insuranceProvider;
 
+    /** Free text ranked against provider bios, e.g. "panic attacks"; only affects ordering. */
+    @Size(max = 500, message = "Bio query must be at most 500 characters")
+    private String bioQuery;
+
+    @Min(value = 1, message = "At least one result must be requested")
+    @Max(value = 50, message = "At most 50 results can be requested")
+    private Integer maxResults;
+
     @Data
     public static class Demographics {
         @NotNull(message = "Patient ethnicity is required")
@@ -1,13 +1,25 @@
 package com.anisehealth.matching.model;
 
+import com.anisehealth.matching.index.TermDictionary;
+import com.anisehealth.matching.index.TermNormalizer;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AccessLevel;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Setter;
+import lombok.ToString;
 import com.opencsv.bean.CsvBindByName;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 @Data
-public class Provider {
+public class Provider implements ProviderProfile {
+    @CsvBindByName(column = "Provider Id")
+    private String id;
+
     @CsvBindByName(column = "First Name")
     private String firstName;
 
@@ -20,9 +32,15 @@ public class Provider {
     @CsvBindByName(column = "Gender Identity")
     private String genderIdentity;
 
+    // Capacity as loaded from the roster; open slots are tracked in openSlots
     @CsvBindByName(column = "No Of Clients Able To Take On")
     private Integer availableCapacity;
 
+    @JsonIgnore
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
+    private final AtomicInteger openSlots = new AtomicInteger();
+
     @CsvBindByName(column = "Language")
     private String language;
 
@@ -54,60 +72,154 @@ public class Provider {
     private List<String> languages;
     private List<String> treatmentModalities;
     private List<String> specializationAreas;
-    private List<PatientRequest.PaymentMethod> paymentMethods;
-    private List<PatientRequest.InsuranceProvider> insuranceProviders;
-
-    private String normalizeModality(String modality) {
-        String normalized = modality.trim();
-        
-        // Handle common abbreviations
-        if (normalized.equalsIgnoreCase("CBT") || 
-            normalized.contains("Cognitive Behavioral") || 
-            normalized.contains("Cognitive-Behavioral")) {
-            return "CBT";
-        }
-        if (normalized.equalsIgnoreCase("DBT") || 
-            normalized.contains("Dialectical Behavioral") || 
-            normalized.contains("Dialectical-Behavioral")) {
-            return "DBT";
-        }
-        if (normalized.equalsIgnoreCase("MBCT") || 
-            normalized.contains("Mindfulness-Based") || 
-            normalized.contains("Mindfulness Based")) {
-            return "MBCT";
+
+    // Dictionary-encoded fields for matching; ids are sorted and distinct
+    @JsonIgnore
+    private int[] languageIds = new int[0];
+    @JsonIgnore
+    private int[] treatmentModalityIds = new int[0];
+    @JsonIgnore
+    private int[] specializationAreaIds = new int[0];
+    @JsonIgnore
+    private int genderId = TermDictionary.UNKNOWN;
+    @JsonIgnore
+    private int ethnicityId = TermDictionary.UNKNOWN;
+    @JsonIgnore
+    private int religionId = TermDictionary.UNKNOWN;
+
+    // One bit per enum ordinal
+    @JsonIgnore
+    private long locationMask;
+    @JsonIgnore
+    private int paymentMethodMask;
+    @JsonIgnore
+    private int insuranceProviderMask;
+
+    // Request-independent part of the match score is capacity * 2 + profileBreadth
+    @JsonIgnore
+    @Setter(AccessLevel.NONE)
+    private int profileBreadth;
+
+    /** Open slots left; falls as reservations are made and never exceeds the roster capacity. */
+    public Integer getAvailableCapacity() {
+        return availableCapacity != null ? openSlots.get() : null;
+    }
+
+    public void setAvailableCapacity(Integer availableCapacity) {
+        this.availableCapacity = availableCapacity;
+        openSlots.set(availableCapacity != null ? availableCapacity : 0);
+    }
+
+    @JsonIgnore
+    public int getStaticScore() {
+        return openSlots.get() * 2 + profileBreadth;
+    }
+
+    /** Takes one open slot, returning false if none are left. */
+    public boolean tryReserve() {
+        while (true) {
+            int open = openSlots.get();
+            if (open <= 0) return false;
+            if (openSlots.compareAndSet(open, open - 1)) return true;
         }
-        if (normalized.equalsIgnoreCase("ACT") || 
-            normalized.contains("Acceptance and Commitment")) {
-            return "ACT";
+    }
+
+    /** Slots taken by reservations since the roster was loaded. */
+    @JsonIgnore
+    public int getReservedSlots() {
+        int limit = availableCapacity != null ? availableCapacity : 0;
+        return Math.max(0, limit - openSlots.get());
+    }
+
+    /** Re-applies reservations carried over from a previous roster version. */
+    public void restoreReservedSlots(int reserved) {
+        int limit = availableCapacity != null ? availableCapacity : 0;
+        openSlots.set(Math.max(0, limit - reserved));
+    }
+
+    /** Returns one slot, returning false if all roster slots are already open. */
+    public boolean release() {
+        int limit = availableCapacity != null ? availableCapacity : 0;
+        while (true) {
+            int open = openSlots.get();
+            if (open >= limit) return false;
+            if (openSlots.compareAndSet(open, open + 1)) return true;
         }
-        if (normalized.equalsIgnoreCase("MI") || 
-            normalized.contains("Motivational Interviewing")) {
-            return "MI";
+    }
+
+    public List<PatientRequest.PaymentMethod> getPaymentMethods() {
+        return decode(paymentMethodMask, PatientRequest.PaymentMethod.values());
+    }
+
+    public List<PatientRequest.InsuranceProvider> getInsuranceProviders() {
+        return decode(insuranceProviderMask, PatientRequest.InsuranceProvider.values());
+    }
+
+    public boolean acceptsPaymentMethod(PatientRequest.PaymentMethod method) {
+        return ProviderProfile.accepts(paymentMethodMask, method);
+    }
+
+    public boolean acceptsInsuranceProvider(PatientRequest.InsuranceProvider insurer) {
+        return ProviderProfile.accepts(insuranceProviderMask, insurer);
+    }
+
+    private static <E extends Enum<E>> List<E> decode(int mask, E[] values) {
+        var decoded = new ArrayList<E>(Integer.bitCount(mask));
+        for (E value : values) {
+            if ((mask & (1 << value.ordinal())) != 0) decoded.add(value);
         }
-        
-        // Remove parentheses and extra spaces
-        return normalized.replaceAll("\\s*\\([^)]*\\)\\s*", "").trim();
-    }
-
-    private String normalizeArea(String area) {
-        String normalized = area.trim();
-        
-        // Handle common variations
-        if (normalized.contains("Anxiety")) return "Anxiety";
-        if (normalized.contains("Depression")) return "Depression";
-        if (normalized.contains("Panic")) return "Panic attacks";
-        if (normalized.contains("Worry")) return "Worry";
-        if (normalized.contains("self-esteem") || normalized.contains("self esteem")) return "Low self-esteem";
-        if (normalized.contains("trauma")) return "Trauma-related stress";
-        if (normalized.contains("LGBTQ")) return "LGBTQ+ related concerns";
-        if (normalized.contains("Academic")) return "Academic stress";
-        if (normalized.contains("Occupation")) return "Occupation-related stress";
-        if (normalized.contains("transition")) return "Major life transitions";
-        if (normalized.contains("Social fear")) return "Social fears";
-        if (normalized.contains("Interpersonal")) return "Interpersonal problems";
-        if (normalized.contains("Relationship")) return "Relationship difficulties";
-        
-        return normalized;
+        return decoded;
+    }
+
+    private static <E extends Enum<E>> int encode(List<E> values) {
+        int mask = 0;
+        for (E value : values) mask |= 1 << value.ordinal();
+        return mask;
+    }
+
+    /** The mask of the recognised values, marked {@link ProviderProfile#LISTED} when the column listed anything. */
+    private static <E extends Enum<E>> int encode(String column, List<E> values) {
+        boolean listed = column != null && !column.replace(",", "").isBlank();
+        return listed ? ProviderProfile.LISTED | encode(values) : 0;
+    }
+
+    private static int[] termIds(List<String> terms, TermDictionary dictionary) {
+        if (terms == null) return new int[0];
+        return terms.stream()
+            .mapToInt(dictionary::intern)
+            .distinct()
+            .sorted()
+            .toArray();
+    }
+
+    private static int termId(String term, TermDictionary dictionary) {
+        return term != null ? dictionary.intern(term) : TermDictionary.UNKNOWN;
+    }
+
+    /**
+     * Sets already-processed term lists, as restored from a roster snapshot,
+     * in place of running {@link #processRawFields()} on the raw columns.
+     */
+    public void setProcessedTerms(List<String> languages, List<String> treatmentModalities,
+                                  List<String> specializationAreas) {
+        this.languages = languages;
+        this.treatmentModalities = treatmentModalities;
+        this.specializationAreas = specializationAreas;
+        profileBreadth = languages.size() + treatmentModalities.size() + specializationAreas.size();
+    }
+
+    /**
+     * Encodes the processed terms and identities as ids of the roster's
+     * dictionary. Runs when the provider joins a roster, after
+     * {@link #processRawFields()}.
+     */
+    public void encodeTerms(TermDictionary dictionary) {
+        languageIds = termIds(languages, dictionary);
+        treatmentModalityIds = termIds(treatmentModalities, dictionary);
+        specializationAreaIds = termIds(specializationAreas, dictionary);
+        genderId = termId(genderIdentity, dictionary);
+        ethnicityId = termId(ethnicIdentity, dictionary);
+        religionId = termId(religiousBackground, dictionary);
     }
 
     public void processRawFields() {
@@ -119,10 +231,12 @@ public class Provider {
                 .collect(Collectors.toList()) : 
             List.of();
 
+        TermNormalizer normalizer = TermNormalizer.defaultInstance();
+
         // Process treatment modalities
         treatmentModalities = treatmentModality != null ? 
             Arrays.stream(treatmentModality.split("[,\\n]"))
-                .map(this::normalizeModality)
+                .map(normalizer::normalizeModality)
                 .filter(s -> !s.isEmpty())
                 .collect(Collectors.toList()) : 
             List.of();
@@ -130,13 +244,17 @@ public class Provider {
         // Process specialization areas
         specializationAreas = areasOfSpecialization != null ? 
             Arrays.stream(areasOfSpecialization.split(","))
-                .map(this::normalizeArea)
+                .map(normalizer::normalizeArea)
                 .filter(s -> !s.isEmpty())
                 .collect(Collectors.toList()) : 
             List.of();
 
+        profileBreadth = languages.size() + treatmentModalities.size() + specializationAreas.size();
+
+        locationMask = UsState.parseMask(location);
+
         // Process payment methods
-        paymentMethods = acceptedPaymentMethods != null ?
+        List<PatientRequest.PaymentMethod> paymentMethods = acceptedPaymentMethods != null ?
             Arrays.stream(acceptedPaymentMethods.split(","))
                 .map(String::trim)
                 .filter(s -> !s.isEmpty())
@@ -159,8 +277,10 @@ public class Provider {
                 .collect(Collectors.toList()) :
             List.of();
 
+        paymentMethodMask = encode(acceptedPaymentMethods, paymentMethods);
+
         // Process insurance providers
-        insuranceProviders = acceptedInsuranceProviders != null ?
+        List<PatientRequest.InsuranceProvider> insuranceProviders = acceptedInsuranceProviders != null ?
             Arrays.stream(acceptedInsuranceProviders.split(","))
                 .map(String::trim)
                 .filter(s -> !s.isEmpty())
@@ -174,5 +294,7 @@ public class Provider {
                 .filter(p -> p != null)
                 .collect(Collectors.toList()) :
             List.of();
+
+        insuranceProviderMask = encode(acceptedInsuranceProviders, insuranceProviders);
     }
-} 
\ No newline at end of file
+}
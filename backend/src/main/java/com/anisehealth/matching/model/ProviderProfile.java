@@ -0,0 +1,52 @@
+package com.anisehealth.matching.model;
+
+/**
+ * The fields matching and scoring read from a provider. Implemented by
+ * {@link Provider} and by the columnar roster's flyweight, so candidates can
+ * be ranked without materializing a {@code Provider} for each.
+ */
+public interface ProviderProfile {
+    /**
+     * Set in a payment or insurer bitmask when the roster column listed
+     * anything, even if none of it was recognised, so an unrecognised list
+     * is told apart from a blank column. Above every enum ordinal.
+     */
+    int LISTED = 1 << 31;
+
+    /** Open slots left, or null when the roster gave no capacity. */
+    Integer getAvailableCapacity();
+
+    /** Request-independent part of the match score. */
+    int getStaticScore();
+
+    /** Sorted, distinct term ids. */
+    int[] getLanguageIds();
+
+    /** Sorted, distinct term ids. */
+    int[] getTreatmentModalityIds();
+
+    /** Sorted, distinct term ids. */
+    int[] getSpecializationAreaIds();
+
+    int getGenderId();
+
+    int getEthnicityId();
+
+    int getReligionId();
+
+    /** True when the provider lists the method, or leaves the payment column blank. */
+    boolean acceptsPaymentMethod(PatientRequest.PaymentMethod method);
+
+    /** True when the provider lists the insurer, or leaves the insurer column blank. */
+    boolean acceptsInsuranceProvider(PatientRequest.InsuranceProvider insurer);
+
+    /**
+     * Whether a payment or insurer bitmask admits {@code value}. An empty mask
+     * means the column was blank, so it admits everything, the same rule
+     * {@code ProviderIndex} filters by. A column that listed only values we
+     * do not recognise is {@link #LISTED} alone and admits nothing.
+     */
+    static boolean accepts(int mask, Enum<?> value) {
+        return mask == 0 || (mask & (1 << value.ordinal())) != 0;
+    }
+}
@@ -0,0 +1,15 @@
+package com.anisehealth.matching.model;
+
+import com.fasterxml.jackson.annotation.JsonUnwrapped;
+import lombok.Value;
+
+import java.util.List;
+
+/** A match from a relaxed search, serialized as the provider plus the constraints it needed relaxed. */
+@Value
+public class RelaxedMatch {
+    @JsonUnwrapped
+    Provider provider;
+    /** Therapist preferences or modality the provider does not meet; empty for a strict match. */
+    List<String> relaxedConstraints;
+}
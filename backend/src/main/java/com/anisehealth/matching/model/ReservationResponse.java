@@ -0,0 +1,11 @@
+package com.anisehealth.matching.model;
+
+import lombok.Value;
+
+@Value
+public class ReservationResponse {
+    String providerId;
+    boolean applied;
+    /** Open slots after the call, or null when the roster gives the provider no capacity. */
+    Integer availableCapacity;
+}
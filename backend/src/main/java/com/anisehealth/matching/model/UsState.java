@@ -0,0 +1,106 @@
+package com.anisehealth.matching.model;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * US states (plus DC) a provider can be licensed in. Roster locations and
+ * patient requests are parsed into these so location matching is an exact
+ * lookup rather than a substring test.
+ */
+public enum UsState {
+    AL("Alabama"),
+    AK("Alaska"),
+    AZ("Arizona"),
+    AR("Arkansas"),
+    CA("California"),
+    CO("Colorado"),
+    CT("Connecticut"),
+    DE("Delaware"),
+    DC("District of Columbia"),
+    FL("Florida"),
+    GA("Georgia"),
+    HI("Hawaii"),
+    ID("Idaho"),
+    IL("Illinois"),
+    IN("Indiana"),
+    IA("Iowa"),
+    KS("Kansas"),
+    KY("Kentucky"),
+    LA("Louisiana"),
+    ME("Maine"),
+    MD("Maryland"),
+    MA("Massachusetts"),
+    MI("Michigan"),
+    MN("Minnesota"),
+    MS("Mississippi"),
+    MO("Missouri"),
+    MT("Montana"),
+    NE("Nebraska"),
+    NV("Nevada"),
+    NH("New Hampshire"),
+    NJ("New Jersey"),
+    NM("New Mexico"),
+    NY("New York"),
+    NC("North Carolina"),
+    ND("North Dakota"),
+    OH("Ohio"),
+    OK("Oklahoma"),
+    OR("Oregon"),
+    PA("Pennsylvania"),
+    RI("Rhode Island"),
+    SC("South Carolina"),
+    SD("South Dakota"),
+    TN("Tennessee"),
+    TX("Texas"),
+    UT("Utah"),
+    VT("Vermont"),
+    VA("Virginia"),
+    WA("Washington"),
+    WV("West Virginia"),
+    WI("Wisconsin"),
+    WY("Wyoming");
+
+    private static final Map<String, UsState> BY_NAME = new HashMap<>();
+
+    static {
+        for (UsState state : values()) {
+            BY_NAME.put(state.name().toLowerCase(Locale.ROOT), state);
+            BY_NAME.put(state.displayName.toLowerCase(Locale.ROOT), state);
+        }
+    }
+
+    private final String displayName;
+
+    UsState(String displayName) {
+        this.displayName = displayName;
+    }
+
+    public String getDisplayName() {
+        return displayName;
+    }
+
+    /** Accepts a two-letter code or a full state name, ignoring case and surrounding whitespace. */
+    public static UsState fromString(String value) {
+        if (value == null) return null;
+        UsState state = BY_NAME.get(value.trim().toLowerCase(Locale.ROOT));
+        if (state == null) throw new IllegalArgumentException("Invalid location: " + value);
+        return state;
+    }
+
+    /** Parses a comma-separated location list into a bitmask of state ordinals, skipping unknown entries. */
+    public static long parseMask(String locations) {
+        if (locations == null) return 0L;
+        long mask = 0L;
+        for (String location : locations.split(",")) {
+            if (location.isBlank()) continue;
+            try {
+                mask |= 1L << fromString(location).ordinal();
+            } catch (IllegalArgumentException e) {
+                // Unknown entries never match a request
+            }
+        }
+        return mask;
+    }
+}
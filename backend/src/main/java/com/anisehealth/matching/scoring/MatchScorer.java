@@ -0,0 +1,39 @@
+package com.anisehealth.matching.scoring;
+
+import com.anisehealth.matching.index.MatchQuery;
+import com.anisehealth.matching.model.ProviderProfile;
+
+import java.util.Map;
+
+/**
+ * Ranks a provider that already passed every matching filter. Called once per
+ * surviving candidate on the request path, so implementations should avoid
+ * allocating. Register a bean of this type to replace the default
+ * {@link WeightedMatchScorer}.
+ */
+public interface MatchScorer {
+
+    /** Higher is better. */
+    int score(ProviderProfile provider, MatchQuery query);
+
+    /**
+     * Score for a request with a bio query, given the provider's BM25
+     * {@code bioRelevance} to it. Ignores bios unless overridden.
+     */
+    default int score(ProviderProfile provider, MatchQuery query, double bioRelevance) {
+        return score(provider, query);
+    }
+
+    /**
+     * The score split into named contributions that sum to
+     * {@link #score}. Only used to explain a match, so it may allocate.
+     */
+    default Map<String, Integer> breakdown(ProviderProfile provider, MatchQuery query) {
+        return Map.of("score", score(provider, query));
+    }
+
+    /** {@link #breakdown(ProviderProfile, MatchQuery)} for {@link #score(ProviderProfile, MatchQuery, double)}. */
+    default Map<String, Integer> breakdown(ProviderProfile provider, MatchQuery query, double bioRelevance) {
+        return Map.of("score", score(provider, query, bioRelevance));
+    }
+}
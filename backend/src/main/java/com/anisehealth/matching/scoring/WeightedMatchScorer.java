@@ -0,0 +1,106 @@
+package com.anisehealth.matching.scoring;
+
+import com.anisehealth.matching.config.MatchingProperties;
+import com.anisehealth.matching.index.MatchQuery;
+import com.anisehealth.matching.model.PatientRequest;
+import com.anisehealth.matching.model.ProviderProfile;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Linear combination of the provider's static score and request-dependent
+ * features, weighted by {@code app.matching.weights}. Overlaps are counted
+ * by merging the sorted term id arrays, so scoring allocates nothing.
+ */
+public class WeightedMatchScorer implements MatchScorer {
+    private final MatchingProperties.Weights weights;
+
+    public WeightedMatchScorer(MatchingProperties properties) {
+        this.weights = properties.getWeights();
+    }
+
+    @Override
+    public int score(ProviderProfile provider, MatchQuery query) {
+        int capacity = provider.getAvailableCapacity() != null ? provider.getAvailableCapacity() : 0;
+        return weights.getProfile() * provider.getStaticScore()
+            + weights.getAreaOverlap() * overlap(provider.getSpecializationAreaIds(), query.getAreaIds())
+            + weights.getModalityOverlap() * overlap(provider.getTreatmentModalityIds(), query.getModalityIds())
+            + weights.getPreferenceHit() * preferenceHits(provider, query)
+            + weights.getCapacity() * capacity
+            + weights.getPaymentFit() * (paymentFits(provider, query) ? 1 : 0);
+    }
+
+    @Override
+    public int score(ProviderProfile provider, MatchQuery query, double bioRelevance) {
+        return score(provider, query) + bioScore(bioRelevance);
+    }
+
+    @Override
+    public Map<String, Integer> breakdown(ProviderProfile provider, MatchQuery query, double bioRelevance) {
+        var breakdown = breakdown(provider, query);
+        breakdown.put("bioRelevance", bioScore(bioRelevance));
+        return breakdown;
+    }
+
+    private int bioScore(double bioRelevance) {
+        return (int) Math.round(weights.getBioRelevance() * bioRelevance);
+    }
+
+    @Override
+    public Map<String, Integer> breakdown(ProviderProfile provider, MatchQuery query) {
+        int capacity = provider.getAvailableCapacity() != null ? provider.getAvailableCapacity() : 0;
+        var breakdown = new LinkedHashMap<String, Integer>();
+        breakdown.put("profile", weights.getProfile() * provider.getStaticScore());
+        breakdown.put("areaOverlap", weights.getAreaOverlap() * overlap(provider.getSpecializationAreaIds(), query.getAreaIds()));
+        breakdown.put("modalityOverlap", weights.getModalityOverlap() * overlap(provider.getTreatmentModalityIds(), query.getModalityIds()));
+        breakdown.put("preferenceHit", weights.getPreferenceHit() * preferenceHits(provider, query));
+        breakdown.put("capacity", weights.getCapacity() * capacity);
+        breakdown.put("paymentFit", weights.getPaymentFit() * (paymentFits(provider, query) ? 1 : 0));
+        return breakdown;
+    }
+
+    /** Counts the ids present in both sorted, distinct arrays. */
+    static int overlap(int[] a, int[] b) {
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                count++;
+                i++;
+                j++;
+            }
+        }
+        return count;
+    }
+
+    private static int preferenceHits(ProviderProfile provider, MatchQuery query) {
+        int hits = 0;
+        if (hit(query.getPreferredGenderId(), provider.getGenderId())) hits++;
+        if (hit(query.getPreferredEthnicityId(), provider.getEthnicityId())) hits++;
+        if (hit(query.getPreferredReligionId(), provider.getReligionId())) hits++;
+        if (query.getPreferredLanguageId() >= 0
+            && Arrays.binarySearch(provider.getLanguageIds(), query.getPreferredLanguageId()) >= 0) hits++;
+        return hits;
+    }
+
+    private static boolean hit(int preferredId, int providerId) {
+        return preferredId >= 0 && preferredId == providerId;
+    }
+
+    /** Same eligibility as the index's payment filter: an empty payment or insurer list accepts any. */
+    private static boolean paymentFits(ProviderProfile provider, MatchQuery query) {
+        PatientRequest.PaymentMethod method = query.getPaymentMethod();
+        if (method == null || !provider.acceptsPaymentMethod(method)) return false;
+        PatientRequest.InsuranceProvider insurer = query.getInsuranceProvider();
+        return method != PatientRequest.PaymentMethod.INSURANCE
+            || insurer == null
+            || provider.acceptsInsuranceProvider(insurer);
+    }
+}
@@ -0,0 +1,81 @@
+package com.anisehealth.matching.service;
+
+import com.anisehealth.matching.config.MatchingProperties;
+import com.anisehealth.matching.index.MatchQuery;
+import com.anisehealth.matching.model.BulkAssignment;
+import com.anisehealth.matching.model.PatientRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+/**
+ * Assigns a whole batch of patients at once, so scarce providers go to the
+ * patients they suit best rather than to whoever asked first. Candidates
+ * are ranked in parallel against one roster snapshot; the assignment only
+ * plans against open slots and reserves nothing.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BulkAssignmentService {
+    private final ProviderMatchingService matchingService;
+    private final MatchingProperties properties;
+
+    public BulkAssignment assign(List<PatientRequest> requests, BulkAssignment.Strategy strategy) {
+        RosterSnapshot roster = matchingService.getSnapshot();
+        ProviderStore store = roster.store();
+        int perPatient = Math.max(1, properties.getAssignment().getCandidatesPerPatient());
+
+        int patients = requests.size();
+        int[][] candidates = new int[patients][];
+        int[][] scores = new int[patients][];
+        IntStream.range(0, patients).parallel().forEach(patient -> {
+            var topK = new TopKSelector(perPatient, roster.getIndex());
+            var query = MatchQuery.of(requests.get(patient), roster.getDictionary());
+            matchingService.rank(roster, query, topK, null);
+            candidates[patient] = new int[topK.size()];
+            scores[patient] = new int[topK.size()];
+            topK.drainBestFirst(candidates[patient], scores[patient]);
+        });
+
+        int[] capacity = new int[store.size()];
+        for (int ordinal = 0; ordinal < capacity.length; ordinal++) {
+            Integer open = store.availableCapacity(ordinal);
+            capacity[ordinal] = open != null ? open : 0;
+        }
+
+        long started = System.nanoTime();
+        int[] assignment = strategy == BulkAssignment.Strategy.GREEDY
+            ? BulkAssignmentSolver.greedy(candidates, capacity)
+            : BulkAssignmentSolver.auction(candidates, scores, capacity);
+        log.debug("Assigned {} patients with {} in {} ms", patients, strategy,
+            (System.nanoTime() - started) / 1_000_000);
+
+        var assignments = new ArrayList<BulkAssignment.Assignment>(patients);
+        long totalScore = 0;
+        int assigned = 0;
+        for (int patient = 0; patient < patients; patient++) {
+            int ordinal = assignment[patient];
+            if (ordinal == BulkAssignmentSolver.UNASSIGNED) {
+                assignments.add(new BulkAssignment.Assignment(patient, null, null));
+                continue;
+            }
+            int score = scoreOf(candidates[patient], scores[patient], ordinal);
+            assignments.add(new BulkAssignment.Assignment(patient, store.id(ordinal), score));
+            totalScore += score;
+            assigned++;
+        }
+        return new BulkAssignment(strategy, assignments, totalScore, assigned);
+    }
+
+    private static int scoreOf(int[] candidates, int[] scores, int ordinal) {
+        for (int k = 0; k < candidates.length; k++) {
+            if (candidates[k] == ordinal) return scores[k];
+        }
+        throw new IllegalStateException("Assigned ordinal " + ordinal + " is not a candidate");
+    }
+}
@@ -0,0 +1,176 @@
+package com.anisehealth.matching.service;
+
+import java.util.Arrays;
+
+/**
+ * Assigns patients to provider slots, each patient choosing only among its
+ * own candidates. Candidates are roster ordinals, best first, with their
+ * match scores alongside; capacity holds the open slots per ordinal.
+ */
+final class BulkAssignmentSolver {
+    static final int UNASSIGNED = -1;
+
+    // Scores are multiplied by this (capped) so a bid increment is a fraction of a point
+    private static final int MAX_PRICE_SCALE = 16;
+
+    private BulkAssignmentSolver() {
+    }
+
+    /** Gives each patient, in order, the best candidate with a slot left. */
+    static int[] greedy(int[][] candidates, int[] capacity) {
+        int[] left = capacity.clone();
+        int[] assignment = new int[candidates.length];
+        Arrays.fill(assignment, UNASSIGNED);
+        for (int patient = 0; patient < candidates.length; patient++) {
+            for (int provider : candidates[patient]) {
+                if (left[provider] > 0) {
+                    left[provider]--;
+                    assignment[patient] = provider;
+                    break;
+                }
+            }
+        }
+        return assignment;
+    }
+
+    /**
+     * Approximately maximizes the total score with a single-threaded
+     * Gauss-Seidel forward auction. Every slot has a price that only rises.
+     * An unassigned patient bids for the cheapest slot of the candidate whose
+     * score net of price is highest, raising its price by the margin over the
+     * patient's next best option (another candidate, that provider's next
+     * slot, or staying unassigned at zero) plus one, and evicting the slot's
+     * holder back into the queue.
+     *
+     * <p>With scores scaled by {@code s}, the total is within
+     * {@code patients / s} points of the optimum, so the result is optimal
+     * for fewer than {@value #MAX_PRICE_SCALE} patients and larger batches
+     * may fall short by up to {@code patients / 16} points. Each bid raises a
+     * price that is capped at the highest scaled score, which bounds the
+     * number of bids by slots × top score × {@code s}.
+     *
+     * <p>There is a single phase at a fixed scale rather than ε-scaling down
+     * to {@code s > patients}: patients may stay unassigned, and prices
+     * carried between phases would leave slots priced above zero without a
+     * holder, which needs a reverse auction to repair.
+     */
+    static int[] auction(int[][] candidates, int[][] scores, int[] capacity) {
+        int patients = candidates.length;
+        long scale = Math.min(patients + 1, MAX_PRICE_SCALE);
+        var slots = new Slots(capacity);
+        int[] assignment = new int[patients];
+        Arrays.fill(assignment, UNASSIGNED);
+
+        // Each patient is queued at most once, so a ring of one entry per patient suffices
+        int[] queue = new int[Math.max(1, patients)];
+        int head = 0;
+        int queued = patients;
+        for (int patient = 0; patient < patients; patient++) {
+            queue[patient] = patient;
+        }
+
+        while (queued > 0) {
+            int patient = queue[head];
+            head = (head + 1) % queue.length;
+            queued--;
+
+            int bestProvider = UNASSIGNED;
+            long bestBenefit = 0;
+            long best = Long.MIN_VALUE;
+            long second = 0; // staying unassigned
+            for (int k = 0; k < candidates[patient].length; k++) {
+                int provider = candidates[patient][k];
+                if (capacity[provider] <= 0) continue;
+                long benefit = scores[patient][k] * scale;
+                long value = benefit - slots.cheapest(provider);
+                if (value > best) {
+                    second = Math.max(second, best);
+                    best = value;
+                    bestProvider = provider;
+                    bestBenefit = benefit;
+                } else if (value > second) {
+                    second = value;
+                }
+            }
+            if (bestProvider == UNASSIGNED || best <= 0) continue;
+
+            if (capacity[bestProvider] > 1) {
+                second = Math.max(second, bestBenefit - slots.secondCheapest(bestProvider));
+            }
+            long bid = slots.cheapest(bestProvider) + best - second + 1;
+            int evicted = slots.take(bestProvider, patient, bid);
+            assignment[patient] = bestProvider;
+            if (evicted != UNASSIGNED) {
+                assignment[evicted] = UNASSIGNED;
+                queue[(head + queued) % queue.length] = evicted;
+                queued++;
+            }
+        }
+        return assignment;
+    }
+
+    /**
+     * Slot prices and holders, one binary min-heap on price per provider laid
+     * out in a shared array, so the cheapest slot is at the provider's offset.
+     */
+    private static final class Slots {
+        private final int[] offset;
+        private final int[] capacity;
+        private final long[] price;
+        private final int[] holder;
+
+        Slots(int[] capacity) {
+            this.capacity = capacity;
+            offset = new int[capacity.length];
+            int total = 0;
+            for (int provider = 0; provider < capacity.length; provider++) {
+                offset[provider] = total;
+                total += Math.max(0, capacity[provider]);
+            }
+            price = new long[total];
+            holder = new int[total];
+            Arrays.fill(holder, UNASSIGNED);
+        }
+
+        long cheapest(int provider) {
+            return price[offset[provider]];
+        }
+
+        long secondCheapest(int provider) {
+            int root = offset[provider];
+            return capacity[provider] > 2 ? Math.min(price[root + 1], price[root + 2]) : price[root + 1];
+        }
+
+        /** Gives the cheapest slot to the bidder at the new price, returning its previous holder. */
+        int take(int provider, int bidder, long newPrice) {
+            int root = offset[provider];
+            int evicted = holder[root];
+            price[root] = newPrice;
+            holder[root] = bidder;
+            siftDown(root, capacity[provider]);
+            return evicted;
+        }
+
+        private void siftDown(int root, int size) {
+            int i = 0;
+            while (true) {
+                int left = 2 * i + 1;
+                if (left >= size) break;
+                int cheaper = left;
+                if (left + 1 < size && price[root + left + 1] < price[root + left]) cheaper = left + 1;
+                if (price[root + cheaper] >= price[root + i]) break;
+                swap(root + i, root + cheaper);
+                i = cheaper;
+            }
+        }
+
+        private void swap(int a, int b) {
+            long p = price[a];
+            price[a] = price[b];
+            price[b] = p;
+            int h = holder[a];
+            holder[a] = holder[b];
+            holder[b] = h;
+        }
+    }
+}
@@ -0,0 +1,317 @@
+package com.anisehealth.matching.service;
+
+import com.anisehealth.matching.model.PatientRequest;
+import com.anisehealth.matching.model.Provider;
+import com.anisehealth.matching.model.ProviderProfile;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+
+/**
+ * Stores the roster one column per field instead of one {@link Provider} per
+ * row. Match fields are primitive arrays indexed by ordinal; free text (bio,
+ * raw CSV columns and processed term lists) is UTF-8 in a single off-heap
+ * arena. The heap holds no per-provider strings apart from ids, and a
+ * {@code Provider} is only built for the rows a request actually returns.
+ */
+final class ColumnarProviderStore implements ProviderStore {
+    private static final long NULL_TEXT = -1L;
+    private static final int NO_CAPACITY = -1;
+    private static final String LIST_SEPARATOR = "\u001F";
+
+    /** Text columns kept in the arena, with how to read and restore each. */
+    private enum Text {
+        FIRST_NAME(Provider::getFirstName, Provider::setFirstName),
+        LAST_NAME(Provider::getLastName, Provider::setLastName),
+        ETHNIC_IDENTITY(Provider::getEthnicIdentity, Provider::setEthnicIdentity),
+        GENDER_IDENTITY(Provider::getGenderIdentity, Provider::setGenderIdentity),
+        LANGUAGE(Provider::getLanguage, Provider::setLanguage),
+        LOCATION(Provider::getLocation, Provider::setLocation),
+        BIO(Provider::getBio, Provider::setBio),
+        SEXUAL_ORIENTATION(Provider::getSexualOrientation, Provider::setSexualOrientation),
+        RELIGIOUS_BACKGROUND(Provider::getReligiousBackground, Provider::setReligiousBackground),
+        TREATMENT_MODALITY(Provider::getTreatmentModality, Provider::setTreatmentModality),
+        AREAS_OF_SPECIALIZATION(Provider::getAreasOfSpecialization, Provider::setAreasOfSpecialization),
+        ACCEPTED_PAYMENT_METHODS(Provider::getAcceptedPaymentMethods, Provider::setAcceptedPaymentMethods),
+        ACCEPTED_INSURANCE_PROVIDERS(Provider::getAcceptedInsuranceProviders, Provider::setAcceptedInsuranceProviders),
+        LANGUAGES(provider -> joined(provider.getLanguages()), null),
+        TREATMENT_MODALITIES(provider -> joined(provider.getTreatmentModalities()), null),
+        SPECIALIZATION_AREAS(provider -> joined(provider.getSpecializationAreas()), null);
+
+        private static final Text[] VALUES = values();
+
+        private final Function<Provider, String> getter;
+        private final BiConsumer<Provider, String> setter;
+
+        Text(Function<Provider, String> getter, BiConsumer<Provider, String> setter) {
+            this.getter = getter;
+            this.setter = setter;
+        }
+    }
+
+    private final int size;
+    private final String[] ids;
+    private final Map<String, Integer> ordinals;
+    private final int[] capacity;
+    private final AtomicIntegerArray openSlots;
+    private final LongAdder freeCapacity = new LongAdder();
+    private final int[] profileBreadth;
+    private final int[][] languageIds;
+    private final int[][] treatmentModalityIds;
+    private final int[][] specializationAreaIds;
+    private final int[] genderId;
+    private final int[] ethnicityId;
+    private final int[] religionId;
+    private final long[] locationMask;
+    private final int[] paymentMethodMask;
+    private final int[] insuranceProviderMask;
+    // [ordinal * Text count + column]: arena offset in the high word, byte length in the low word
+    private final long[] textRefs;
+    private final ByteBuffer arena;
+
+    private ColumnarProviderStore(List<Provider> providers) {
+        size = providers.size();
+        ids = new String[size];
+        ordinals = new HashMap<>(size * 2);
+        capacity = new int[size];
+        openSlots = new AtomicIntegerArray(size);
+        profileBreadth = new int[size];
+        languageIds = new int[size][];
+        treatmentModalityIds = new int[size][];
+        specializationAreaIds = new int[size][];
+        genderId = new int[size];
+        ethnicityId = new int[size];
+        religionId = new int[size];
+        locationMask = new long[size];
+        paymentMethodMask = new int[size];
+        insuranceProviderMask = new int[size];
+        textRefs = new long[size * Text.VALUES.length];
+
+        var encoded = new ArrayList<byte[]>(textRefs.length);
+        long arenaSize = 0;
+        for (int ordinal = 0; ordinal < size; ordinal++) {
+            Provider provider = providers.get(ordinal);
+            ids[ordinal] = provider.getId();
+            ordinals.put(provider.getId(), ordinal);
+            Integer available = provider.getAvailableCapacity();
+            capacity[ordinal] = available != null ? available + provider.getReservedSlots() : NO_CAPACITY;
+            openSlots.set(ordinal, available != null ? available : 0);
+            freeCapacity.add(openSlots.get(ordinal));
+            profileBreadth[ordinal] = provider.getProfileBreadth();
+            languageIds[ordinal] = provider.getLanguageIds();
+            treatmentModalityIds[ordinal] = provider.getTreatmentModalityIds();
+            specializationAreaIds[ordinal] = provider.getSpecializationAreaIds();
+            genderId[ordinal] = provider.getGenderId();
+            ethnicityId[ordinal] = provider.getEthnicityId();
+            religionId[ordinal] = provider.getReligionId();
+            locationMask[ordinal] = provider.getLocationMask();
+            paymentMethodMask[ordinal] = provider.getPaymentMethodMask();
+            insuranceProviderMask[ordinal] = provider.getInsuranceProviderMask();
+            for (Text column : Text.VALUES) {
+                String value = column.getter.apply(provider);
+                if (value == null) {
+                    textRefs[textRef(ordinal, column)] = NULL_TEXT;
+                    continue;
+                }
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                textRefs[textRef(ordinal, column)] = arenaSize << 32 | bytes.length;
+                arenaSize += bytes.length;
+                encoded.add(bytes);
+            }
+        }
+        if (arenaSize > Integer.MAX_VALUE) {
+            throw new IllegalStateException("Roster text exceeds the 2 GiB columnar arena");
+        }
+        arena = ByteBuffer.allocateDirect((int) arenaSize);
+        encoded.forEach(arena::put);
+    }
+
+    static ColumnarProviderStore of(List<Provider> providers) {
+        return new ColumnarProviderStore(providers);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public String id(int ordinal) {
+        return ids[ordinal];
+    }
+
+    @Override
+    public int ordinalOf(String id) {
+        return ordinals.getOrDefault(id, NOT_FOUND);
+    }
+
+    @Override
+    public IntFunction<ProviderProfile> profiles() {
+        return new Row()::at;
+    }
+
+    @Override
+    public Provider provider(int ordinal) {
+        var provider = new Provider();
+        provider.setId(ids[ordinal]);
+        for (Text column : Text.VALUES) {
+            if (column.setter != null) column.setter.accept(provider, text(ordinal, column));
+        }
+        provider.setAvailableCapacity(capacity[ordinal] != NO_CAPACITY ? capacity[ordinal] : null);
+        provider.restoreReservedSlots(reservedSlots(ordinal));
+        provider.setProcessedTerms(list(ordinal, Text.LANGUAGES), list(ordinal, Text.TREATMENT_MODALITIES),
+            list(ordinal, Text.SPECIALIZATION_AREAS));
+        provider.setLanguageIds(languageIds[ordinal]);
+        provider.setTreatmentModalityIds(treatmentModalityIds[ordinal]);
+        provider.setSpecializationAreaIds(specializationAreaIds[ordinal]);
+        provider.setGenderId(genderId[ordinal]);
+        provider.setEthnicityId(ethnicityId[ordinal]);
+        provider.setReligionId(religionId[ordinal]);
+        provider.setLocationMask(locationMask[ordinal]);
+        provider.setPaymentMethodMask(paymentMethodMask[ordinal]);
+        provider.setInsuranceProviderMask(insuranceProviderMask[ordinal]);
+        return provider;
+    }
+
+    @Override
+    public boolean tryReserve(int ordinal) {
+        while (true) {
+            int open = openSlots.get(ordinal);
+            if (open <= 0) return false;
+            if (openSlots.compareAndSet(ordinal, open, open - 1)) {
+                freeCapacity.decrement();
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public boolean release(int ordinal) {
+        int limit = limit(ordinal);
+        while (true) {
+            int open = openSlots.get(ordinal);
+            if (open >= limit) return false;
+            if (openSlots.compareAndSet(ordinal, open, open + 1)) {
+                freeCapacity.increment();
+                return true;
+            }
+        }
+    }
+
+    @Override
+    public Integer availableCapacity(int ordinal) {
+        return capacity[ordinal] != NO_CAPACITY ? openSlots.get(ordinal) : null;
+    }
+
+    @Override
+    public int reservedSlots(int ordinal) {
+        return Math.max(0, limit(ordinal) - openSlots.get(ordinal));
+    }
+
+    @Override
+    public void restoreReservedSlots(int ordinal, int reserved) {
+        int open = Math.max(0, limit(ordinal) - reserved);
+        freeCapacity.add(open - openSlots.getAndSet(ordinal, open));
+    }
+
+    @Override
+    public long freeCapacity() {
+        return freeCapacity.sum();
+    }
+
+    private int limit(int ordinal) {
+        return Math.max(0, capacity[ordinal]);
+    }
+
+    private static int textRef(int ordinal, Text column) {
+        return ordinal * Text.VALUES.length + column.ordinal();
+    }
+
+    private String text(int ordinal, Text column) {
+        long ref = textRefs[textRef(ordinal, column)];
+        if (ref == NULL_TEXT) return null;
+        byte[] bytes = new byte[(int) ref];
+        arena.get((int) (ref >>> 32), bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private List<String> list(int ordinal, Text column) {
+        String joined = text(ordinal, column);
+        if (joined == null || joined.isEmpty()) return new ArrayList<>();
+        return new ArrayList<>(Arrays.asList(joined.split(LIST_SEPARATOR, -1)));
+    }
+
+    private static String joined(List<String> values) {
+        return values != null ? String.join(LIST_SEPARATOR, values) : null;
+    }
+
+    /** Flyweight view of one row; repositioned by {@link #at} instead of allocated per candidate. */
+    private final class Row implements ProviderProfile {
+        private int ordinal;
+
+        Row at(int ordinal) {
+            this.ordinal = ordinal;
+            return this;
+        }
+
+        @Override
+        public Integer getAvailableCapacity() {
+            return availableCapacity(ordinal);
+        }
+
+        @Override
+        public int getStaticScore() {
+            return openSlots.get(ordinal) * 2 + profileBreadth[ordinal];
+        }
+
+        @Override
+        public int[] getLanguageIds() {
+            return languageIds[ordinal];
+        }
+
+        @Override
+        public int[] getTreatmentModalityIds() {
+            return treatmentModalityIds[ordinal];
+        }
+
+        @Override
+        public int[] getSpecializationAreaIds() {
+            return specializationAreaIds[ordinal];
+        }
+
+        @Override
+        public int getGenderId() {
+            return genderId[ordinal];
+        }
+
+        @Override
+        public int getEthnicityId() {
+            return ethnicityId[ordinal];
+        }
+
+        @Override
+        public int getReligionId() {
+            return religionId[ordinal];
+        }
+
+        @Override
+        public boolean acceptsPaymentMethod(PatientRequest.PaymentMethod method) {
+            return ProviderProfile.accepts(paymentMethodMask[ordinal], method);
+        }
+
+        @Override
+        public boolean acceptsInsuranceProvider(PatientRequest.InsuranceProvider insurer) {
+            return ProviderProfile.accepts(insuranceProviderMask[ordinal], insurer);
+        }
+    }
+}
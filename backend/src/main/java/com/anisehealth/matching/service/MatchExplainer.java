@@ -0,0 +1,126 @@
+package com.anisehealth.matching.service;
+
+import com.anisehealth.matching.index.MatchPlan;
+import com.anisehealth.matching.model.MatchExplanation;
+import com.anisehealth.matching.model.PatientRequest;
+import com.anisehealth.matching.model.Provider;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.IntFunction;
+
+/**
+ * Collects a {@link MatchExplanation} while one request runs through the
+ * pipeline. Stage counts are set cardinalities and excluded providers are
+ * the first few bits of each stage's difference, so only the sampled
+ * providers and the returned matches are materialized.
+ */
+final class MatchExplainer {
+    static final int EXCLUDED_SAMPLE = 5;
+    private static final String CAPACITY_STAGE = "capacity";
+
+    private final PatientRequest request;
+    private final MatchPlan plan;
+    private final ProviderStore store;
+    private final Map<MatchPlan.Predicate, Integer> estimates = new EnumMap<>(MatchPlan.Predicate.class);
+    private final List<MatchExplanation.Stage> stages = new ArrayList<>();
+    private final List<MatchExplanation.Exclusion> full = new ArrayList<>();
+    private BitSet previous;
+    private int fullCount;
+
+    MatchExplainer(PatientRequest request, MatchPlan plan, ProviderStore store) {
+        this.request = request;
+        this.plan = plan;
+        this.store = store;
+        plan.getSteps().forEach(step -> estimates.put(step.getPredicate(), step.getEstimatedCandidates()));
+        previous = new BitSet(store.size());
+        previous.set(0, store.size());
+    }
+
+    /** Records one plan step; {@code survivors} is the candidate set right after it. */
+    void filtered(MatchPlan.Predicate predicate, BitSet survivors) {
+        var excluded = (BitSet) previous.clone();
+        excluded.andNot(survivors);
+        var sample = new ArrayList<MatchExplanation.Exclusion>(EXCLUDED_SAMPLE);
+        for (int i = excluded.nextSetBit(0); i >= 0 && sample.size() < EXCLUDED_SAMPLE; i = excluded.nextSetBit(i + 1)) {
+            Provider provider = store.provider(i);
+            sample.add(exclusion(provider, providerValue(predicate, provider)));
+        }
+        stages.add(new MatchExplanation.Stage(predicate.label(), requested(predicate), estimates.get(predicate),
+            previous.cardinality(), survivors.cardinality(), sample));
+        // The plan keeps narrowing the same set in place
+        previous = (BitSet) survivors.clone();
+    }
+
+    /** Records a filtered candidate that had no open slot left. */
+    void noRoom(int ordinal) {
+        if (fullCount++ < EXCLUDED_SAMPLE) {
+            Provider provider = store.provider(ordinal);
+            full.add(exclusion(provider, String.valueOf(provider.getAvailableCapacity())));
+        }
+    }
+
+    MatchExplanation explanation(int[] ordinals, int[] scores, IntFunction<Map<String, Integer>> breakdowns) {
+        var all = new ArrayList<>(stages);
+        if (!previous.isEmpty()) {
+            int candidates = previous.cardinality();
+            all.add(new MatchExplanation.Stage(CAPACITY_STAGE, "an open slot", null, candidates,
+                candidates - fullCount, full));
+        }
+        var matches = new ArrayList<MatchExplanation.RankedMatch>(ordinals.length);
+        for (int i = 0; i < ordinals.length; i++) {
+            Provider provider = store.provider(ordinals[i]);
+            matches.add(new MatchExplanation.RankedMatch(provider.getId(), name(provider), scores[i],
+                breakdowns.apply(ordinals[i])));
+        }
+        return new MatchExplanation(plan.getRosterSize(), plan.explain(), all, matches);
+    }
+
+    private String requested(MatchPlan.Predicate predicate) {
+        var preferences = request.getTherapistPreferences();
+        return switch (predicate) {
+            case AREAS -> joined(request.getAreasOfConcern());
+            case LOCATION -> request.getLocation();
+            case PAYMENT -> request.getPaymentMethod() == PatientRequest.PaymentMethod.INSURANCE
+                && request.getInsuranceProvider() != null
+                ? request.getPaymentMethod() + " (" + request.getInsuranceProvider() + ")"
+                : String.valueOf(request.getPaymentMethod());
+            case MODALITY -> joined(request.getTreatmentModality());
+            case GENDER -> preferences.getPreferredGender();
+            case ETHNICITY -> preferences.getPreferredEthnicity();
+            case RELIGION -> preferences.getPreferredReligion();
+            case LANGUAGE -> preferences.getPreferredLanguage();
+        };
+    }
+
+    private static String providerValue(MatchPlan.Predicate predicate, Provider provider) {
+        return switch (predicate) {
+            case AREAS -> provider.getAreasOfSpecialization();
+            case LOCATION -> provider.getLocation();
+            case PAYMENT -> provider.getAcceptedInsuranceProviders() != null
+                ? provider.getAcceptedPaymentMethods() + " (" + provider.getAcceptedInsuranceProviders() + ")"
+                : provider.getAcceptedPaymentMethods();
+            case MODALITY -> provider.getTreatmentModality();
+            case GENDER -> provider.getGenderIdentity();
+            case ETHNICITY -> provider.getEthnicIdentity();
+            case RELIGION -> provider.getReligiousBackground();
+            case LANGUAGE -> provider.getLanguage();
+        };
+    }
+
+    private static MatchExplanation.Exclusion exclusion(Provider provider, String value) {
+        return new MatchExplanation.Exclusion(provider.getId(), name(provider), value);
+    }
+
+    private static String name(Provider provider) {
+        return provider.getFirstName() + " " + provider.getLastName();
+    }
+
+    private static String joined(List<String> values) {
+        return values != null ? String.join(", ", values.stream().filter(Objects::nonNull).toList()) : null;
+    }
+}
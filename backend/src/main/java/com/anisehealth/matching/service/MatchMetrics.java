@@ -0,0 +1,122 @@
+package com.anisehealth.matching.service;
+
+import com.anisehealth.matching.config.MatchingProperties;
+import com.anisehealth.matching.index.MatchPlan;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Instruments the match pipeline stage by stage. Each stage is timed as
+ * {@code provider.match.stage} with a percentile histogram, and the
+ * candidates entering and leaving it are counted as
+ * {@code provider.match.filter.candidates} tagged {@code side=in|out}, so
+ * out/in is the stage's selectivity. Index stages run in the order the
+ * {@link MatchPlan} chose, and only when the request constrains them. The
+ * current roster is gauged as {@code provider.roster.size} and
+ * {@code provider.roster.free.capacity}.
+ * {@code app.matching.metrics.stages: false} turns the per-stage meters off.
+ */
+@Component
+public class MatchMetrics {
+    public enum Stage {
+        AREAS,
+        LOCATION,
+        PAYMENT,
+        MODALITY,
+        GENDER,
+        ETHNICITY,
+        RELIGION,
+        LANGUAGE,
+        RANKING;
+
+        private final String tag = name().toLowerCase(Locale.ROOT);
+    }
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final Stage[] PREDICATE_STAGES = Arrays.stream(MatchPlan.Predicate.values())
+        .map(predicate -> Stage.valueOf(predicate.name()))
+        .toArray(Stage[]::new);
+
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final Timer[] timers = new Timer[STAGES.length];
+    private final Counter[] candidatesIn = new Counter[STAGES.length];
+    private final Counter[] candidatesOut = new Counter[STAGES.length];
+    // Shared by every run while stage metrics are off
+    private final Run disabledRun = new Run(-1);
+
+    public MatchMetrics(MatchingProperties properties, MeterRegistry registry) {
+        this.registry = registry;
+        this.enabled = properties.getMetrics().isStages();
+        for (Stage stage : STAGES) {
+            timers[stage.ordinal()] = Timer.builder("provider.match.stage")
+                .description("Time spent in one stage of the match pipeline")
+                .tag("stage", stage.tag)
+                .publishPercentileHistogram()
+                .register(registry);
+            candidatesIn[stage.ordinal()] = candidates(stage, "in");
+            candidatesOut[stage.ordinal()] = candidates(stage, "out");
+        }
+    }
+
+    private Counter candidates(Stage stage, String side) {
+        return Counter.builder("provider.match.filter.candidates")
+            .description("Providers entering or surviving one stage of the match pipeline")
+            .tag("stage", stage.tag)
+            .tag("side", side)
+            .register(registry);
+    }
+
+    /** Gauges whichever roster snapshot is current when scraped. */
+    void bindRoster(Supplier<RosterSnapshot> roster) {
+        Gauge.builder("provider.roster.size", () -> roster.get().store().size())
+            .description("Providers in the current roster")
+            .register(registry);
+        Gauge.builder("provider.roster.free.capacity", () -> roster.get().store().freeCapacity())
+            .description("Open client slots across the current roster")
+            .register(registry);
+    }
+
+    /** Starts measuring one pipeline run over {@code candidates} providers. */
+    Run start(int candidates) {
+        return enabled ? new Run(candidates) : disabledRun;
+    }
+
+    /** One pipeline run; each stage is measured from the end of the previous one. */
+    class Run {
+        private final boolean measured;
+        private long stageStarted;
+        private int remaining;
+
+        private Run(int candidates) {
+            this.measured = candidates >= 0;
+            this.stageStarted = measured ? System.nanoTime() : 0;
+            this.remaining = candidates;
+        }
+
+        /** Records one step of the {@link MatchPlan}, whatever position the planner gave it. */
+        void finished(MatchPlan.Predicate predicate, BitSet candidates) {
+            if (measured) finished(PREDICATE_STAGES[predicate.ordinal()], candidates.cardinality());
+        }
+
+        void finished(Stage stage, int survivors) {
+            if (!measured) return;
+            long now = System.nanoTime();
+            int i = stage.ordinal();
+            timers[i].record(now - stageStarted, TimeUnit.NANOSECONDS);
+            candidatesIn[i].increment(remaining);
+            candidatesOut[i].increment(survivors);
+            stageStarted = now;
+            remaining = survivors;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.anisehealth.matching.service;
+
+import com.anisehealth.matching.config.MatchingProperties;
+import com.anisehealth.matching.index.MatchQuery;
+import com.anisehealth.matching.model.Provider;
+import com.anisehealth.matching.model.UsState;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bounded cache of match results keyed by the canonical {@link MatchQuery}
+ * and result count. Entries live in a Caffeine cache, so lookups take no lock
+ * and the entries least likely to be reused are evicted first. Each entry
+ * remembers the roster version and logical time it was computed at and the
+ * ordinals it returned.
+ *
+ * <p>Capacity changes are stamped rather than applied to entries, so a
+ * reservation costs the same however full the cache is, and each entry is
+ * checked when it is read. A reservation lowers one provider's score, so it
+ * can only change results that include that provider, and stamps the
+ * provider. A release raises the score, so it can also bring the provider
+ * into any result whose query it passes; every query requires a shared area
+ * of concern and state, so a release stamps each of the provider's
+ * area-and-state pairs too. An entry is stale once any of its providers, or
+ * any area-and-state pair of its query, was stamped after it was computed.
+ *
+ * <p>Lookups are counted as {@code provider.match.cache.requests} tagged
+ * {@code result=hit|miss}, and the entry count is gauged as
+ * {@code provider.match.cache.size} once the cache is bound to a registry;
+ * Spring Boot binds {@link MeterBinder} beans on startup.
+ */
+@Component
+public class MatchResultCache implements MeterBinder {
+    private static final int STATES = UsState.values().length;
+
+    private final int maxEntries;
+    private final Cache<Key, Entry> entries;
+    // Logical time; ticks once per capacity change
+    private final AtomicLong clock = new AtomicLong();
+    private volatile Stamps stamps = new Stamps(0, 0, 0);
+    private final Counter hits;
+    private final Counter misses;
+
+    public MatchResultCache(MatchingProperties properties, MeterRegistry registry) {
+        this.maxEntries = properties.getCache().getMaxEntries();
+        this.entries = Caffeine.newBuilder()
+            .maximumSize(Math.max(0, maxEntries))
+            // Evicts on the calling thread instead of the common pool
+            .executor(Runnable::run)
+            .build();
+        this.hits = counter(registry, "hit");
+        this.misses = counter(registry, "miss");
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("provider.match.cache.size", this, MatchResultCache::size)
+            .description("Match results currently cached")
+            .register(registry);
+    }
+
+    private static Counter counter(MeterRegistry registry, String result) {
+        return Counter.builder("provider.match.cache.requests")
+            .description("Match result cache lookups")
+            .tag("result", result)
+            .register(registry);
+    }
+
+    /** Read before computing a result, and passed to {@link #put}. */
+    public long clock() {
+        return clock.get();
+    }
+
+    /** Returns the cached result, or null when absent, computed under another roster version or since changed. */
+    public List<Provider> get(MatchQuery query, int maxResults, long rosterVersion) {
+        if (maxEntries <= 0) return null;
+        var key = new Key(query, maxResults);
+        Entry entry = entries.getIfPresent(key);
+        if (entry != null && entry.getRosterVersion() == rosterVersion && stamps.unchangedSince(entry, query)) {
+            hits.increment();
+            return entry.getProviders();
+        }
+        if (entry != null) entries.asMap().remove(key, entry);
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Caches a result computed from {@code ordinals}. {@code computedAt} is
+     * {@link #clock()} as read before computing it, so a capacity change
+     * that raced the computation leaves the entry stale.
+     */
+    public void put(MatchQuery query, int maxResults, long rosterVersion, long computedAt,
+                    int[] ordinals, List<Provider> providers) {
+        if (maxEntries <= 0) return;
+        entries.put(new Key(query, maxResults),
+            new Entry(rosterVersion, computedAt, ordinals.clone(), List.copyOf(providers)));
+    }
+
+    /** Drops every entry and starts stamping {@code roster}; called when a new roster version is published. */
+    public void rosterChanged(RosterSnapshot roster) {
+        stamps = new Stamps(roster.getVersion(), roster.store().size(), roster.getDictionary().size());
+        entries.invalidateAll();
+    }
+
+    /** Marks the results of {@code roster} that include the provider as stale; called after a reservation. */
+    public void invalidateReturning(RosterSnapshot roster, int ordinal) {
+        if (maxEntries <= 0) return;
+        stampsFor(roster).stampProvider(ordinal, clock.incrementAndGet());
+    }
+
+    /** Marks the results of {@code roster} the provider may now rank in as stale; called after a release. */
+    public void invalidateAdmitting(RosterSnapshot roster, int ordinal) {
+        if (maxEntries <= 0) return;
+        Stamps current = stampsFor(roster);
+        long now = clock.incrementAndGet();
+        var profile = roster.store().profiles().apply(ordinal);
+        current.stampAreas(profile.getSpecializationAreaIds(), roster.getIndex().stateMask(ordinal), now);
+        current.stampProvider(ordinal, now);
+    }
+
+    private Stamps stampsFor(RosterSnapshot roster) {
+        Stamps current = stamps;
+        if (current.version == roster.getVersion()) return current;
+        synchronized (this) {
+            if (stamps.version != roster.getVersion()) rosterChanged(roster);
+            return stamps;
+        }
+    }
+
+    public int size() {
+        entries.cleanUp();
+        return (int) entries.estimatedSize();
+    }
+
+    @Value
+    private static class Key {
+        MatchQuery query;
+        int maxResults;
+    }
+
+    @Value
+    private static class Entry {
+        long rosterVersion;
+        long computedAt;
+        int[] ordinals;
+        List<Provider> providers;
+    }
+
+    /** The last time each provider, and each area-and-state pair, of one roster version changed. */
+    private static final class Stamps {
+        final long version;
+        private final AtomicLongArray providers;
+        private final AtomicLongArray areaStates;
+
+        Stamps(long version, int providers, int terms) {
+            this.version = version;
+            this.providers = new AtomicLongArray(providers);
+            this.areaStates = new AtomicLongArray(terms * STATES);
+        }
+
+        void stampProvider(int ordinal, long now) {
+            providers.set(ordinal, now);
+        }
+
+        void stampAreas(int[] areaIds, long stateMask, long now) {
+            for (int areaId : areaIds) {
+                for (long states = stateMask; states != 0; states &= states - 1) {
+                    areaStates.set(areaId * STATES + Long.numberOfTrailingZeros(states), now);
+                }
+            }
+        }
+
+        boolean unchangedSince(Entry entry, MatchQuery query) {
+            if (entry.getRosterVersion() != version) return false;
+            long computedAt = entry.getComputedAt();
+            for (int ordinal : entry.getOrdinals()) {
+                if (providers.get(ordinal) > computedAt) return false;
+            }
+            for (int areaId : query.getAreaIds()) {
+                for (long states = query.getLocationMask(); states != 0; states &= states - 1) {
+                    if (areaStates.get(areaId * STATES + Long.numberOfTrailingZeros(states)) > computedAt) return false;
+                }
+            }
+            return true;
+        }
+    }
+}
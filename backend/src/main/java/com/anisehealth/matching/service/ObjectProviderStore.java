@@ -0,0 +1,90 @@
+package com.anisehealth.matching.service;
+
+import com.anisehealth.matching.model.Provider;
+import com.anisehealth.matching.model.ProviderProfile;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntFunction;
+
+/** The default store: one {@link Provider} object per roster row. */
+final class ObjectProviderStore implements ProviderStore {
+    private final List<Provider> providers;
+    private final Map<String, Integer> ordinals;
+    private final LongAdder freeCapacity = new LongAdder();
+
+    ObjectProviderStore(List<Provider> providers, Map<String, Integer> ordinals) {
+        this.providers = providers;
+        this.ordinals = ordinals;
+        for (int ordinal = 0; ordinal < providers.size(); ordinal++) {
+            freeCapacity.add(openSlots(ordinal));
+        }
+    }
+
+    @Override
+    public int size() {
+        return providers.size();
+    }
+
+    @Override
+    public String id(int ordinal) {
+        return providers.get(ordinal).getId();
+    }
+
+    @Override
+    public int ordinalOf(String id) {
+        return ordinals.getOrDefault(id, NOT_FOUND);
+    }
+
+    @Override
+    public IntFunction<ProviderProfile> profiles() {
+        return providers::get;
+    }
+
+    @Override
+    public Provider provider(int ordinal) {
+        return providers.get(ordinal);
+    }
+
+    @Override
+    public boolean tryReserve(int ordinal) {
+        if (!providers.get(ordinal).tryReserve()) return false;
+        freeCapacity.decrement();
+        return true;
+    }
+
+    @Override
+    public boolean release(int ordinal) {
+        if (!providers.get(ordinal).release()) return false;
+        freeCapacity.increment();
+        return true;
+    }
+
+    @Override
+    public Integer availableCapacity(int ordinal) {
+        return providers.get(ordinal).getAvailableCapacity();
+    }
+
+    @Override
+    public int reservedSlots(int ordinal) {
+        return providers.get(ordinal).getReservedSlots();
+    }
+
+    @Override
+    public void restoreReservedSlots(int ordinal, int reserved) {
+        int before = openSlots(ordinal);
+        providers.get(ordinal).restoreReservedSlots(reserved);
+        freeCapacity.add(openSlots(ordinal) - before);
+    }
+
+    @Override
+    public long freeCapacity() {
+        return freeCapacity.sum();
+    }
+
+    private int openSlots(int ordinal) {
+        Integer open = providers.get(ordinal).getAvailableCapacity();
+        return open != null ? open : 0;
+    }
+}
@@ -1,129 +1,393 @@
 package com.anisehealth.matching.service;
 
+import com.anisehealth.matching.config.RosterProperties;
+import com.anisehealth.matching.index.BioAnalyzer;
+import com.anisehealth.matching.index.BioIndex;
+import com.anisehealth.matching.index.MatchPlan;
+import com.anisehealth.matching.index.MatchQuery;
+import com.anisehealth.matching.index.ProviderIndex;
+import com.anisehealth.matching.model.BatchMatchResult;
+import com.anisehealth.matching.model.BioSearchResult;
+import com.anisehealth.matching.model.MatchExplanation;
 import com.anisehealth.matching.model.Provider;
 import com.anisehealth.matching.model.PatientRequest;
-import com.opencsv.bean.CsvToBeanBuilder;
+import com.anisehealth.matching.model.ProviderProfile;
+import com.anisehealth.matching.model.RelaxedMatch;
+import com.anisehealth.matching.model.ReservationResponse;
+import com.anisehealth.matching.scoring.MatchScorer;
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
-import org.springframework.core.io.ClassPathResource;
-import org.springframework.util.StringUtils;
 
-import java.io.InputStreamReader;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class ProviderMatchingService {
-    private List<Provider> providers;
+    static final int DEFAULT_MAX_RESULTS = 3;
+    private static final double BIO_SCORE_SCALE = 1000.0;
+    /** Constraints a relaxed search gives up, first to last. */
+    static final List<MatchPlan.Predicate> RELAXATION_ORDER = List.of(
+        MatchPlan.Predicate.RELIGION, MatchPlan.Predicate.ETHNICITY, MatchPlan.Predicate.GENDER, MatchPlan.Predicate.MODALITY);
+
+    private final MatchScorer scorer;
+    private final RosterLoader rosterLoader;
+    private final RosterProperties rosterProperties;
+    private final MatchResultCache resultCache;
+    private final MatchMetrics metrics;
+    private final AtomicReference<RosterSnapshot> snapshot = new AtomicReference<>(RosterSnapshot.empty());
+    // Reservations hold the read side; copying them into a new roster and publishing it holds the write side
+    private final ReentrantReadWriteLock reservationLock = new ReentrantReadWriteLock();
 
     @PostConstruct
     public void init() {
+        metrics.bindRoster(snapshot::get);
         try {
-            var csvResource = new ClassPathResource("mock-data.csv");
-            providers = new CsvToBeanBuilder<Provider>(new InputStreamReader(csvResource.getInputStream()))
-                .withType(Provider.class)
-                .build()
-                .parse();
-
-            providers.forEach(Provider::processRawFields);
-            providers = providers.stream()
-                .filter(this::isCompleteProvider)
-                .collect(Collectors.toList());
-            log.info("Loaded {} valid providers from CSV", providers.size());
+            loadProviders(rosterLoader.load());
         } catch (Exception e) {
             log.error("Error loading provider data", e);
-            providers = new ArrayList<>();
+            loadProviders(RosterSnapshot.builder());
+        }
+    }
+
+    /**
+     * Rebuilds the roster in the background when the roster file changes. A
+     * failed reload keeps serving the current snapshot.
+     */
+    @Scheduled(fixedDelayString = "${app.roster.poll-interval:PT30S}", initialDelayString = "${app.roster.poll-interval:PT30S}")
+    public void refreshRoster() {
+        if (!rosterProperties.isWatch() || !rosterLoader.hasChanged()) return;
+        try {
+            loadProviders(rosterLoader.load());
+        } catch (Exception e) {
+            log.error("Error reloading provider data, keeping roster version {}", snapshot.get().getVersion(), e);
+        }
+    }
+
+    void loadProviders(List<Provider> roster) {
+        loadProviders(RosterSnapshot.builder().addAll(roster));
+    }
+
+    /**
+     * Builds the new roster outside the lock, then copies reservations and
+     * publishes it under the write lock, so no reservation can land on the
+     * old store after its slots were copied. Cached results of the old
+     * roster are dropped with it.
+     */
+    private void loadProviders(RosterSnapshot.Builder roster) {
+        RosterSnapshot next = roster.build(snapshot.get().getVersion() + 1, rosterProperties.getStorage());
+        reservationLock.writeLock().lock();
+        try {
+            carryOverReservations(snapshot.get(), next);
+            snapshot.set(next);
+            resultCache.rosterChanged(next);
+        } finally {
+            reservationLock.writeLock().unlock();
+        }
+        log.debug("Published roster version {} with {} providers", next.getVersion(), next.store().size());
+    }
+
+    /**
+     * Keeps slots reserved against the previous roster version taken in the
+     * new one. Only providers with a stable id in both versions keep theirs:
+     * a name-derived id can pass to a different person when rows are added,
+     * removed or reordered, so those reservations are dropped instead.
+     */
+    private void carryOverReservations(RosterSnapshot previous, RosterSnapshot next) {
+        ProviderStore from = previous.store();
+        ProviderStore to = next.store();
+        int dropped = 0;
+        for (int old = 0; old < from.size(); old++) {
+            int reserved = from.reservedSlots(old);
+            if (reserved == 0) continue;
+            int ordinal = to.ordinalOf(from.id(old));
+            if (ordinal == ProviderStore.NOT_FOUND) continue; // left the roster
+            if (previous.hasStableId(old) && next.hasStableId(ordinal)) {
+                to.restoreReservedSlots(ordinal, reserved);
+            } else {
+                dropped += reserved;
+            }
+        }
+        if (dropped > 0) {
+            log.warn("Dropped {} reserved slots of providers without a stable Provider Id in roster version {}",
+                dropped, next.getVersion());
+        }
+    }
+
+    public RosterSnapshot getSnapshot() {
+        return snapshot.get();
+    }
+
+    /** Takes one slot from the provider, or returns empty if the id is unknown. */
+    public Optional<ReservationResponse> reserve(String providerId) {
+        reservationLock.readLock().lock();
+        try {
+            RosterSnapshot roster = snapshot.get();
+            ProviderStore store = roster.store();
+            int ordinal = store.ordinalOf(providerId);
+            if (ordinal == ProviderStore.NOT_FOUND) return Optional.empty();
+            boolean applied = store.tryReserve(ordinal);
+            if (applied) resultCache.invalidateReturning(roster, ordinal);
+            return Optional.of(new ReservationResponse(providerId, applied, store.availableCapacity(ordinal)));
+        } finally {
+            reservationLock.readLock().unlock();
         }
     }
 
-    private boolean isCompleteProvider(Provider provider) {
-        return provider != null &&
-               StringUtils.hasText(provider.getFirstName()) &&
-               StringUtils.hasText(provider.getLastName()) &&
-               StringUtils.hasText(provider.getEthnicIdentity()) &&
-               StringUtils.hasText(provider.getGenderIdentity()) &&
-               StringUtils.hasText(provider.getLocation()) &&
-               StringUtils.hasText(provider.getBio()) &&
-               provider.getAvailableCapacity() != null &&
-               provider.getAvailableCapacity() > 0 &&
-               provider.getLanguages() != null &&
-               !provider.getLanguages().isEmpty() &&
-               provider.getTreatmentModalities() != null &&
-               !provider.getTreatmentModalities().isEmpty() &&
-               provider.getSpecializationAreas() != null &&
-               !provider.getSpecializationAreas().isEmpty();
+    /** Gives one previously reserved slot back, or returns empty if the id is unknown. */
+    public Optional<ReservationResponse> release(String providerId) {
+        reservationLock.readLock().lock();
+        try {
+            RosterSnapshot roster = snapshot.get();
+            ProviderStore store = roster.store();
+            int ordinal = store.ordinalOf(providerId);
+            if (ordinal == ProviderStore.NOT_FOUND) return Optional.empty();
+            boolean applied = store.release(ordinal);
+            if (applied) resultCache.invalidateAdmitting(roster, ordinal);
+            return Optional.of(new ReservationResponse(providerId, applied, store.availableCapacity(ordinal)));
+        } finally {
+            reservationLock.readLock().unlock();
+        }
     }
 
+    /** Returns the best matches, served from {@link MatchResultCache} when nothing relevant has changed. */
     public List<Provider> findMatches(PatientRequest request) {
-        return providers.stream()
-            .filter(provider -> hasAvailableCapacity(provider))
-            .filter(provider -> matchesLocation(provider, request.getLocation()))
-            .filter(provider -> matchesAreasOfConcern(provider, request.getAreasOfConcern()))
-            .filter(provider -> matchesTreatmentModality(provider, request.getTreatmentModality()))
-            .filter(provider -> matchesTherapistPreferences(provider, request.getTherapistPreferences()))
-            .sorted(Comparator.comparingInt(this::calculateMatchScore).reversed())
-            .limit(3)
-            .collect(Collectors.toList());
+        return findMatches(snapshot.get(), request);
     }
 
-    private boolean hasAvailableCapacity(Provider provider) {
-        return provider.getAvailableCapacity() != null && provider.getAvailableCapacity() > 0;
+    /**
+     * Matches a batch against a single roster snapshot, yielding results in
+     * request order. Requests run in parallel; when {@code capacityAware} is
+     * set they run in order instead, and each patient's best match takes one
+     * of that provider's slots for the rest of the batch, so a provider is
+     * never assigned more patients than it has open slots. The batch does
+     * not reserve anything against live capacity.
+     */
+    public Stream<BatchMatchResult> findMatchesBatch(List<PatientRequest> requests, boolean capacityAware) {
+        RosterSnapshot roster = snapshot.get();
+        if (!capacityAware) {
+            return IntStream.range(0, requests.size()).parallel()
+                .mapToObj(i -> new BatchMatchResult(i, findMatches(roster, requests.get(i)), null));
+        }
+        int[] assigned = new int[roster.store().size()];
+        return IntStream.range(0, requests.size())
+            .mapToObj(i -> assign(roster, i, requests.get(i), assigned));
     }
 
-    private boolean matchesLocation(Provider provider, String requestedLocation) {
-        if (requestedLocation == null || provider.getLocation() == null) return false;
-        return provider.getLocation().toLowerCase().contains(requestedLocation.toLowerCase());
+    private BatchMatchResult assign(RosterSnapshot roster, int index, PatientRequest request, int[] assigned) {
+        MatchQuery query = MatchQuery.of(request, roster.getDictionary());
+        List<Provider> matches = findMatches(roster, query, maxResults(request), assigned);
+        if (matches.isEmpty()) return new BatchMatchResult(index, matches, null);
+        String providerId = matches.get(0).getId();
+        assigned[roster.store().ordinalOf(providerId)]++;
+        return new BatchMatchResult(index, matches, providerId);
     }
 
-    private boolean matchesAreasOfConcern(Provider provider, List<String> requestedAreas) {
-        if (requestedAreas == null || requestedAreas.isEmpty() || provider.getSpecializationAreas() == null) return false;
-        return requestedAreas.stream()
-            .anyMatch(requested -> provider.getSpecializationAreas().stream()
-                .anyMatch(area -> area.equalsIgnoreCase(requested)));
+    /** The order {@link #findMatches(PatientRequest)} would evaluate the request's filters in, with estimates. */
+    public MatchPlan plan(PatientRequest request) {
+        RosterSnapshot roster = snapshot.get();
+        return MatchPlan.of(roster.getIndex(), MatchQuery.of(request, roster.getDictionary()));
     }
 
-    private boolean matchesTreatmentModality(Provider provider, List<String> requestedModalities) {
-        if (requestedModalities == null || requestedModalities.isEmpty() || provider.getTreatmentModalities() == null) return false;
-        return requestedModalities.stream()
-            .anyMatch(requested -> provider.getTreatmentModalities().stream()
-                .anyMatch(modality -> modality.equalsIgnoreCase(requested)));
+    /**
+     * Ranks every provider by the BM25 relevance of their bio to the text,
+     * best first, leaving out bios that share no term with it. Matching
+     * filters and capacity do not apply.
+     */
+    public List<BioSearchResult> searchBios(String text, int limit) {
+        RosterSnapshot roster = snapshot.get();
+        BioIndex.Relevance relevance = roster.getBioIndex().relevance(BioAnalyzer.terms(text));
+        var topK = new TopKSelector(limit, roster.getIndex());
+        for (int i = 0; i < relevance.size(); i++) {
+            // Scaled to keep three decimals through the integer heap
+            topK.offer(relevance.ordinal(i), (int) Math.round(relevance.score(i) * BIO_SCORE_SCALE));
+        }
+        int[] ordinals = new int[topK.size()];
+        int[] scores = new int[topK.size()];
+        topK.drainBestFirst(ordinals, scores);
+        var results = new ArrayList<BioSearchResult>(ordinals.length);
+        for (int i = 0; i < ordinals.length; i++) {
+            results.add(new BioSearchResult(roster.store().provider(ordinals[i]), scores[i] / BIO_SCORE_SCALE));
+        }
+        return results;
     }
 
-    private boolean matchesTherapistPreferences(Provider provider, PatientRequest.TherapistPreferences preferences) {
-        if (preferences == null) return true;
+    /** Null when the request has no bio query, so ranking skips bios altogether. */
+    private static BioIndex.Relevance bioRelevance(RosterSnapshot roster, MatchQuery query) {
+        return query.getBioTerms().isEmpty() ? null : roster.getBioIndex().relevance(query.getBioTerms());
+    }
+
+    /**
+     * Like {@link #findMatches(PatientRequest)}, but when fewer than
+     * maxResults providers meet every constraint, drops the constraints in
+     * {@link #RELAXATION_ORDER} one at a time until enough are found or all
+     * are dropped. Strict matches come first, then each relaxation level's
+     * new providers by score, each labelled with the constraints it misses.
+     * The roster is filtered once; each level's candidates are derived from
+     * the next looser level's with a single intersection.
+     */
+    public List<RelaxedMatch> findMatchesRelaxed(PatientRequest request) {
+        RosterSnapshot roster = snapshot.get();
+        ProviderIndex index = roster.getIndex();
+        MatchQuery query = MatchQuery.of(request, roster.getDictionary());
+        int maxResults = maxResults(request);
+
+        List<MatchPlan.Predicate> relaxable = RELAXATION_ORDER.stream()
+            .filter(predicate -> MatchPlan.appliesTo(predicate, query))
+            .toList();
+        MatchPlan plan = MatchPlan.of(index, query, EnumSet.copyOf(RELAXATION_ORDER));
+        // allowed[level] keeps every relaxable constraint from level on, so allowed[0] is a strict match
+        int levels = relaxable.size();
+        var constraints = new BitSet[levels];
+        var allowed = new BitSet[levels + 1];
+        allowed[levels] = plan.execute(index, (predicate, survivors) -> { });
+        for (int level = levels - 1; level >= 0; level--) {
+            constraints[level] = plan.select(relaxable.get(level), index);
+            allowed[level] = (BitSet) allowed[level + 1].clone();
+            allowed[level].and(constraints[level]);
+        }
+
+        BioIndex.Relevance relevance = bioRelevance(roster, query);
+        var matches = new ArrayList<RelaxedMatch>(maxResults);
+        for (int level = 0; level <= levels && matches.size() < maxResults; level++) {
+            BitSet added = allowed[level];
+            if (level > 0) {
+                added = (BitSet) added.clone();
+                added.andNot(allowed[level - 1]);
+            }
+            var topK = new TopKSelector(maxResults - matches.size(), index);
+            offer(roster, query, relevance, added, topK, null, null);
+            for (int ordinal : topK.ordinalsBestFirst()) {
+                matches.add(new RelaxedMatch(roster.store().provider(ordinal), missed(relaxable, constraints, level, ordinal)));
+            }
+        }
+        return matches;
+    }
 
-        boolean matchesGender = !StringUtils.hasText(preferences.getPreferredGender()) ||
-            "Any".equalsIgnoreCase(preferences.getPreferredGender()) ||
-            (provider.getGenderIdentity() != null &&
-            provider.getGenderIdentity().equalsIgnoreCase(preferences.getPreferredGender()));
+    /** Labels of the relaxed constraints below {@code level} that the provider fails. */
+    private static List<String> missed(List<MatchPlan.Predicate> relaxable, BitSet[] constraints, int level, int ordinal) {
+        var missed = new ArrayList<String>(level);
+        for (int i = 0; i < level; i++) {
+            if (!constraints[i].get(ordinal)) missed.add(relaxable.get(i).label());
+        }
+        return missed;
+    }
 
-        boolean matchesEthnicity = !StringUtils.hasText(preferences.getPreferredEthnicity()) ||
-            "Any".equalsIgnoreCase(preferences.getPreferredEthnicity()) ||
-            (provider.getEthnicIdentity() != null &&
-            provider.getEthnicIdentity().equalsIgnoreCase(preferences.getPreferredEthnicity()));
+    /**
+     * Runs the request through the pipeline once, bypassing the result
+     * cache, and reports each stage's candidate counts with a sample of the
+     * providers it rejected, plus the score breakdown of the returned
+     * matches. Counts come from the index sets, so this costs about as much
+     * as an uncached {@link #findMatches(PatientRequest)}.
+     */
+    public MatchExplanation explain(PatientRequest request) {
+        RosterSnapshot roster = snapshot.get();
+        ProviderIndex index = roster.getIndex();
+        MatchQuery query = MatchQuery.of(request, roster.getDictionary());
+        MatchPlan plan = MatchPlan.of(index, query);
+        var explainer = new MatchExplainer(request, plan, roster.store());
 
-        boolean matchesReligion = !StringUtils.hasText(preferences.getPreferredReligion()) ||
-            "Any".equalsIgnoreCase(preferences.getPreferredReligion()) ||
-            (provider.getReligiousBackground() != null &&
-            provider.getReligiousBackground().equalsIgnoreCase(preferences.getPreferredReligion()));
+        BitSet candidates = plan.execute(index, explainer::filtered);
+        BioIndex.Relevance relevance = bioRelevance(roster, query);
+        var topK = new TopKSelector(maxResults(request), index);
+        offer(roster, query, relevance, candidates, topK, null, explainer::noRoom);
+
+        int[] ordinals = new int[topK.size()];
+        int[] scores = new int[topK.size()];
+        topK.drainBestFirst(ordinals, scores);
+        IntFunction<ProviderProfile> profiles = roster.store().profiles();
+        return explainer.explanation(ordinals, scores, ordinal -> relevance != null
+            ? scorer.breakdown(profiles.apply(ordinal), query, relevance.of(ordinal))
+            : scorer.breakdown(profiles.apply(ordinal), query));
+    }
 
-        boolean matchesLanguage = !StringUtils.hasText(preferences.getPreferredLanguage()) ||
-            "Any".equalsIgnoreCase(preferences.getPreferredLanguage()) ||
-            (provider.getLanguages() != null &&
-            provider.getLanguages().stream()
-                .anyMatch(lang -> lang.equalsIgnoreCase(preferences.getPreferredLanguage())));
+    private List<Provider> findMatches(RosterSnapshot roster, PatientRequest request) {
+        var query = MatchQuery.of(request, roster.getDictionary());
+        int maxResults = maxResults(request);
+        long computedAt = resultCache.clock();
 
-        return matchesGender && matchesEthnicity && matchesReligion && matchesLanguage;
+        List<Provider> cached = resultCache.get(query, maxResults, roster.getVersion());
+        if (cached != null) return cached;
+        int[] ordinals = rankedOrdinals(roster, query, maxResults, null);
+        // Immutable like a cached result, so callers see one list type either way
+        List<Provider> matches = List.copyOf(materialize(roster, ordinals));
+        resultCache.put(query, maxResults, roster.getVersion(), computedAt, ordinals, matches);
+        return matches;
+    }
+
+    private static int maxResults(PatientRequest request) {
+        return request.getMaxResults() != null ? request.getMaxResults() : DEFAULT_MAX_RESULTS;
+    }
+
+    private List<Provider> findMatches(RosterSnapshot roster, MatchQuery query, int maxResults, int[] assigned) {
+        return materialize(roster, rankedOrdinals(roster, query, maxResults, assigned));
+    }
+
+    private int[] rankedOrdinals(RosterSnapshot roster, MatchQuery query, int maxResults, int[] assigned) {
+        var topK = new TopKSelector(maxResults, roster.getIndex());
+        rank(roster, query, topK, assigned);
+        return topK.ordinalsBestFirst();
+    }
+
+    /** Only the selected rows are materialized. */
+    private static List<Provider> materialize(RosterSnapshot roster, int[] ordinals) {
+        return Arrays.stream(ordinals)
+            .mapToObj(roster.store()::provider)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Offers every provider eligible for the query that still has room to
+     * {@code topK}. Index filters run in the order of the query's
+     * {@link MatchPlan}; capacity is checked last, per candidate.
+     * {@code assigned}, when given, holds slots already promised per ordinal
+     * and is subtracted from capacity.
+     */
+    void rank(RosterSnapshot roster, MatchQuery query, TopKSelector topK, int[] assigned) {
+        ProviderIndex index = roster.getIndex();
+        MatchMetrics.Run run = metrics.start(index.size());
+
+        MatchPlan plan = MatchPlan.of(index, query);
+        if (log.isTraceEnabled()) log.trace("Match plan: {}", plan.explain());
+        BitSet candidates = plan.execute(index, run::finished);
+
+        int offered = offer(roster, query, bioRelevance(roster, query), candidates, topK, assigned, null);
+        // Out of ranking counts the providers with room that were scored
+        run.finished(MatchMetrics.Stage.RANKING, offered);
+    }
+
+    /**
+     * Scores the candidates with room into {@code topK}, passing the others
+     * to {@code noRoom} when given, and returns how many were scored.
+     * {@code relevance} is null when the request has no bio query.
+     */
+    private int offer(RosterSnapshot roster, MatchQuery query, BioIndex.Relevance relevance, BitSet candidates,
+                      TopKSelector topK, int[] assigned, IntConsumer noRoom) {
+        IntFunction<ProviderProfile> profiles = roster.store().profiles();
+        int offered = 0;
+        for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1)) {
+            ProviderProfile provider = profiles.apply(i);
+            if (hasAvailableCapacity(provider, assigned != null ? assigned[i] : 0)) {
+                topK.offer(i, relevance != null ? scorer.score(provider, query, relevance.of(i)) : scorer.score(provider, query));
+                offered++;
+            } else if (noRoom != null) {
+                noRoom.accept(i);
+            }
+        }
+        return offered;
     }
 
-    private int calculateMatchScore(Provider provider) {
-        int score = 0;
-        score += provider.getAvailableCapacity() * 2;
-        score += provider.getLanguages().size();
-        score += provider.getTreatmentModalities().size();
-        score += provider.getSpecializationAreas().size();
-        return score;
+    private boolean hasAvailableCapacity(ProviderProfile provider, int assigned) {
+        return provider.getAvailableCapacity() != null && provider.getAvailableCapacity() > assigned;
     }
-} 
\ No newline at end of file
+}
@@ -0,0 +1,47 @@
+package com.anisehealth.matching.service;
+
+import com.anisehealth.matching.model.Provider;
+import com.anisehealth.matching.model.ProviderProfile;
+
+import java.util.function.IntFunction;
+
+/**
+ * Holds the providers of one roster snapshot by ordinal, along with their
+ * live open-slot counts. Either keeps {@link Provider} objects or stores the
+ * roster column by column; see {@code app.roster.storage}.
+ */
+interface ProviderStore {
+    int NOT_FOUND = -1;
+
+    int size();
+
+    /** The provider's id; never null. */
+    String id(int ordinal);
+
+    /** Ordinal of the provider with this id, or {@link #NOT_FOUND}. */
+    int ordinalOf(String id);
+
+    /**
+     * Returns an accessor for the match fields of any ordinal. An accessor
+     * may reuse one view object, so use each view before the next call and
+     * keep accessors to a single thread.
+     */
+    IntFunction<ProviderProfile> profiles();
+
+    /** The full provider, built on demand by stores that do not keep provider objects. */
+    Provider provider(int ordinal);
+
+    boolean tryReserve(int ordinal);
+
+    boolean release(int ordinal);
+
+    /** Open slots left, or null when the roster gave no capacity. */
+    Integer availableCapacity(int ordinal);
+
+    int reservedSlots(int ordinal);
+
+    /** Open slots across the store, kept up to date as slots are taken and returned. */
+    long freeCapacity();
+
+    void restoreReservedSlots(int ordinal, int reserved);
+}
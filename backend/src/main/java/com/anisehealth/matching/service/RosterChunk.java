@@ -0,0 +1,69 @@
+package com.anisehealth.matching.service;
+
+import com.anisehealth.matching.index.ProviderIndex;
+import com.anisehealth.matching.index.TermDictionary;
+import com.anisehealth.matching.model.Provider;
+import com.opencsv.bean.MappingStrategy;
+import com.opencsv.exceptions.CsvException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * A run of raw roster rows that one worker binds, normalizes, validates and
+ * indexes into its own partial {@link ProviderIndex.Builder}, keyed by its
+ * own {@link TermDictionary}. Chunks are merged back in read order, so the
+ * result does not depend on which worker finished first.
+ */
+final class RosterChunk {
+    private final List<String[]> rows;
+    private final long[] lines;
+    private final List<Provider> providers = new ArrayList<>();
+    private final TermDictionary dictionary = new TermDictionary();
+    private final ProviderIndex.Builder index = ProviderIndex.builder();
+    private final List<RosterLoadReport.Rejection> rejections = new ArrayList<>();
+
+    RosterChunk(int capacity) {
+        this.rows = new ArrayList<>(capacity);
+        this.lines = new long[capacity];
+    }
+
+    /** Queues a raw row read from the given source line; returns true once the chunk is full. */
+    boolean add(long line, String[] row) {
+        lines[rows.size()] = line;
+        rows.add(row);
+        return rows.size() == lines.length;
+    }
+
+    boolean isEmpty() {
+        return rows.isEmpty();
+    }
+
+    RosterChunk process(MappingStrategy<Provider> strategy, Predicate<Provider> complete) {
+        for (int i = 0; i < rows.size(); i++) {
+            try {
+                Provider provider = strategy.populateNewBean(rows.get(i));
+                provider.processRawFields();
+                if (complete.test(provider)) {
+                    provider.encodeTerms(dictionary);
+                    providers.add(provider);
+                    index.add(provider);
+                } else {
+                    rejections.add(new RosterLoadReport.Rejection(lines[i], "Missing required provider fields"));
+                }
+            } catch (CsvException | RuntimeException e) {
+                rejections.add(new RosterLoadReport.Rejection(lines[i], e.getMessage()));
+            }
+        }
+        rows.clear();
+        return this;
+    }
+
+    /** Appends the processed rows to the roster and report. */
+    void mergeInto(RosterSnapshot.Builder roster, RosterLoadReport report) {
+        roster.addIndexed(providers, dictionary, index);
+        providers.forEach(provider -> report.accepted());
+        rejections.forEach(rejection -> report.rejected(rejection.getLine(), rejection.getReason()));
+    }
+}
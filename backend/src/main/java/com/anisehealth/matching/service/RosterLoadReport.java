@@ -0,0 +1,51 @@
+package com.anisehealth.matching.service;
+
+import lombok.Getter;
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** Outcome of one roster load: how many rows were accepted and which were rejected. */
+@Getter
+public class RosterLoadReport {
+    static final int MAX_REJECTIONS_KEPT = 100;
+
+    private final String source;
+    private int acceptedRows;
+    private int rejectedRows;
+    private final List<Rejection> rejections = new ArrayList<>();
+
+    RosterLoadReport(String source) {
+        this.source = source;
+    }
+
+    void accepted() {
+        acceptedRows++;
+    }
+
+    /** Sets the counts recorded when a restored roster snapshot was first loaded from CSV. */
+    void restored(int acceptedRows, int rejectedRows) {
+        this.acceptedRows = acceptedRows;
+        this.rejectedRows = rejectedRows;
+    }
+
+    /** Records a rejected row; only the first {@value #MAX_REJECTIONS_KEPT} are kept. */
+    void rejected(long line, String reason) {
+        rejectedRows++;
+        if (rejections.size() < MAX_REJECTIONS_KEPT) {
+            rejections.add(new Rejection(line, reason));
+        }
+    }
+
+    public List<Rejection> getRejections() {
+        return Collections.unmodifiableList(rejections);
+    }
+
+    @Value
+    public static class Rejection {
+        long line;
+        String reason;
+    }
+}
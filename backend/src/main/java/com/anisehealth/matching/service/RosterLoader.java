@@ -0,0 +1,215 @@
+package com.anisehealth.matching.service;
+
+import com.anisehealth.matching.config.RosterProperties;
+import com.anisehealth.matching.model.Provider;
+import com.opencsv.CSVReader;
+import com.opencsv.bean.HeaderColumnNameMappingStrategy;
+import com.opencsv.bean.MappingStrategy;
+import com.opencsv.exceptions.CsvException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.zip.CheckedInputStream;
+
+/**
+ * Streams the provider roster CSV from {@code app.roster.location} into a
+ * {@link RosterSnapshot.Builder}, spreading row processing across cores or
+ * restoring a binary snapshot of an earlier load, and tracks the file's
+ * modification time so callers can tell when it needs reloading.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class RosterLoader {
+    private final RosterProperties properties;
+    private final ResourceLoader resourceLoader;
+    private volatile long loadedModified = -1;
+    private volatile RosterLoadReport lastReport;
+
+    /**
+     * Restores the roster from the binary snapshot at
+     * {@code app.roster.snapshot-path} when it matches the current CSV, and
+     * otherwise parses the CSV and rewrites the snapshot.
+     */
+    public RosterSnapshot.Builder load() throws IOException {
+        Resource resource = resource();
+        long modified = lastModified(resource);
+        Path snapshotPath = snapshotPath();
+        // Stamped before parsing, so a CSV replaced mid-load leaves a stale snapshot rather than a wrong one
+        var source = snapshotPath != null ? RosterSnapshotFile.Source.of(resource).orElse(null) : null;
+
+        if (source != null) {
+            var restored = restoreSnapshot(resource, source, snapshotPath);
+            if (restored != null) {
+                finishLoad(modified, restored.getReport());
+                return restored.getRoster();
+            }
+        }
+
+        var report = new RosterLoadReport(properties.getLocation());
+        // Checksums the bytes as they are parsed, so the snapshot describes exactly what was loaded
+        var csv = new CheckedInputStream(resource.getInputStream(), RosterSnapshotFile.contentChecksum());
+        var roster = parse(csv, report);
+        if (source != null) {
+            writeSnapshot(snapshotPath, source, csv.getChecksum().getValue(), roster, report);
+        }
+        finishLoad(modified, report);
+        return roster;
+    }
+
+    /**
+     * Reads the roster on the calling thread and hands rows in chunks of
+     * {@code app.roster.ingest-chunk-size} to a fork-join pool, where each
+     * worker binds, normalizes, validates and indexes its chunk. Chunks are
+     * merged in read order, so the snapshot is identical to a sequential load.
+     * Rows that fail to bind or are missing required fields are reported by
+     * line number.
+     */
+    private RosterSnapshot.Builder parse(InputStream csv, RosterLoadReport report) throws IOException {
+        var roster = RosterSnapshot.builder();
+        int parallelism = Math.max(1, properties.getIngestParallelism());
+        int chunkSize = Math.max(1, properties.getIngestChunkSize());
+        ForkJoinPool pool = parallelism > 1 ? new ForkJoinPool(parallelism) : null;
+
+        try (var reader = new CSVReader(new InputStreamReader(csv, StandardCharsets.UTF_8))) {
+            var strategy = new HeaderColumnNameMappingStrategy<Provider>();
+            strategy.setType(Provider.class);
+            strategy.captureHeader(reader);
+
+            // Bounds how many chunks of raw rows are held in memory at once
+            var inFlight = new ArrayDeque<ForkJoinTask<RosterChunk>>();
+            var chunk = new RosterChunk(chunkSize);
+            long line = reader.getLinesRead() + 1;
+            String[] row;
+            while ((row = reader.readNext()) != null) {
+                if (chunk.add(line, row)) {
+                    submit(pool, chunk, strategy, inFlight, roster, report);
+                    while (inFlight.size() > 2 * parallelism) {
+                        inFlight.removeFirst().join().mergeInto(roster, report);
+                    }
+                    chunk = new RosterChunk(chunkSize);
+                }
+                line = reader.getLinesRead() + 1;
+            }
+            if (!chunk.isEmpty()) {
+                submit(pool, chunk, strategy, inFlight, roster, report);
+            }
+            while (!inFlight.isEmpty()) {
+                inFlight.removeFirst().join().mergeInto(roster, report);
+            }
+        } catch (CsvException e) {
+            throw new IOException("Unreadable roster " + properties.getLocation() + ": " + e.getMessage(), e);
+        } finally {
+            if (pool != null) pool.shutdownNow();
+        }
+        return roster;
+    }
+
+    /** Returns the restored roster, or null when the snapshot is missing, stale or unreadable. */
+    private RosterSnapshotFile.Restored restoreSnapshot(Resource resource, RosterSnapshotFile.Source source,
+                                                        Path snapshotPath) {
+        try {
+            String description = snapshotPath + " (snapshot of " + properties.getLocation() + ")";
+            var restored = RosterSnapshotFile.read(snapshotPath, source, resource, description);
+            if (restored.isEmpty()) {
+                log.info("Roster snapshot {} is missing or stale, loading {}", snapshotPath, properties.getLocation());
+            }
+            return restored.orElse(null);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable roster snapshot {}", snapshotPath, e);
+            return null;
+        }
+    }
+
+    /** A failed write only costs the next start its fast path, so it is logged rather than thrown. */
+    private void writeSnapshot(Path snapshotPath, RosterSnapshotFile.Source source, long contentChecksum,
+                               RosterSnapshot.Builder roster, RosterLoadReport report) {
+        try {
+            RosterSnapshotFile.write(snapshotPath, source, contentChecksum, roster, report);
+            log.info("Wrote roster snapshot {}", snapshotPath);
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not write roster snapshot {}", snapshotPath, e);
+        }
+    }
+
+    private Path snapshotPath() {
+        return StringUtils.hasText(properties.getSnapshotPath()) ? Path.of(properties.getSnapshotPath()) : null;
+    }
+
+    private void finishLoad(long modified, RosterLoadReport report) {
+        loadedModified = modified;
+        lastReport = report;
+        logReport(report);
+    }
+
+    /** Processes the chunk on the pool, or inline when loading sequentially. */
+    private void submit(ForkJoinPool pool, RosterChunk chunk, MappingStrategy<Provider> strategy,
+                        Deque<ForkJoinTask<RosterChunk>> inFlight, RosterSnapshot.Builder roster, RosterLoadReport report) {
+        if (pool == null) {
+            chunk.process(strategy, this::isCompleteProvider).mergeInto(roster, report);
+        } else {
+            inFlight.addLast(pool.submit(() -> chunk.process(strategy, this::isCompleteProvider)));
+        }
+    }
+
+    public RosterLoadReport getLastReport() {
+        return lastReport;
+    }
+
+    private void logReport(RosterLoadReport report) {
+        log.info("Loaded {} valid providers from {} ({} rows rejected)",
+            report.getAcceptedRows(), report.getSource(), report.getRejectedRows());
+        for (RosterLoadReport.Rejection rejection : report.getRejections()) {
+            log.warn("Rejected roster line {}: {}", rejection.getLine(), rejection.getReason());
+        }
+    }
+
+    /** True when the roster is a file that was modified since the last successful load. */
+    public boolean hasChanged() {
+        Resource resource = resource();
+        return resource.isFile() && lastModified(resource) != loadedModified;
+    }
+
+    private Resource resource() {
+        return resourceLoader.getResource(properties.getLocation());
+    }
+
+    private long lastModified(Resource resource) {
+        try {
+            return resource.isFile() ? resource.lastModified() : -1;
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private boolean isCompleteProvider(Provider provider) {
+        return provider != null &&
+               StringUtils.hasText(provider.getFirstName()) &&
+               StringUtils.hasText(provider.getLastName()) &&
+               StringUtils.hasText(provider.getEthnicIdentity()) &&
+               StringUtils.hasText(provider.getGenderIdentity()) &&
+               StringUtils.hasText(provider.getLocation()) &&
+               StringUtils.hasText(provider.getBio()) &&
+               provider.getAvailableCapacity() != null &&
+               provider.getAvailableCapacity() > 0 &&
+               provider.getLanguages() != null &&
+               !provider.getLanguages().isEmpty() &&
+               provider.getTreatmentModalities() != null &&
+               !provider.getTreatmentModalities().isEmpty() &&
+               provider.getSpecializationAreas() != null &&
+               !provider.getSpecializationAreas().isEmpty();
+    }
+}
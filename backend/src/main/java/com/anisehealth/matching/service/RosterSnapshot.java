@@ -0,0 +1,247 @@
+package com.anisehealth.matching.service;
+
+import com.anisehealth.matching.config.RosterProperties;
+import com.anisehealth.matching.index.BioIndex;
+import com.anisehealth.matching.index.ProviderIndex;
+import com.anisehealth.matching.index.TermDictionary;
+import com.anisehealth.matching.model.Provider;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.util.StringUtils;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * An immutable view of one loaded roster and everything derived from it.
+ * The service publishes a new snapshot with a single reference swap, so a
+ * request that started on one version finishes on it.
+ */
+@Slf4j
+public final class RosterSnapshot {
+    @Getter
+    private final long version;
+    /** The dictionary this roster's term ids, and so the ids of queries against it, come from. */
+    @Getter
+    private final TermDictionary dictionary;
+    @Getter
+    private final ProviderIndex index;
+    @Getter
+    private final BioIndex bioIndex;
+    private final ProviderStore store;
+    private final BitSet generatedIds;
+    private final List<Provider> providers;
+
+    private RosterSnapshot(long version, ProviderStore store, BitSet generatedIds, TermDictionary dictionary,
+                           ProviderIndex index, BioIndex bioIndex) {
+        this.version = version;
+        this.store = store;
+        this.generatedIds = generatedIds;
+        this.dictionary = dictionary;
+        this.index = index;
+        this.bioIndex = bioIndex;
+        this.providers = new AbstractList<>() {
+            @Override
+            public Provider get(int ordinal) {
+                return store.provider(ordinal);
+            }
+
+            @Override
+            public int size() {
+                return store.size();
+            }
+        };
+    }
+
+    static RosterSnapshot empty() {
+        return builder().build(0);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Every provider in roster order. With columnar storage each element is built on access. */
+    public List<Provider> getProviders() {
+        return providers;
+    }
+
+    public Optional<Provider> findProvider(String id) {
+        int ordinal = store.ordinalOf(id);
+        return ordinal != ProviderStore.NOT_FOUND ? Optional.of(store.provider(ordinal)) : Optional.empty();
+    }
+
+    ProviderStore store() {
+        return store;
+    }
+
+    /**
+     * Whether the provider's id is the roster's own "Provider Id", so it names
+     * the same person in the next roster version. Ids derived from names, or
+     * suffixed because another provider already had them, depend on row order.
+     */
+    boolean hasStableId(int ordinal) {
+        return !generatedIds.get(ordinal);
+    }
+
+    /**
+     * Accumulates providers one at a time, assigning ids, encoding terms into
+     * the roster's own dictionary and indexing each as it arrives, so a
+     * roster can be streamed in without an intermediate list.
+     */
+    public static final class Builder {
+        private final List<Provider> providers = new ArrayList<>();
+        private final Map<String, Integer> ordinals = new HashMap<>();
+        private final BitSet generatedIds = new BitSet();
+        private final TermDictionary dictionary;
+        private final ProviderIndex.Builder index = ProviderIndex.builder();
+        private ProviderIndex built;
+        private BioIndex bioIndex;
+
+        private Builder() {
+            this(new TermDictionary());
+        }
+
+        private Builder(TermDictionary dictionary) {
+            this.dictionary = dictionary;
+        }
+
+        /**
+         * A builder around a roster and indexes restored whole, e.g. from a
+         * snapshot file, whose term ids already come from {@code dictionary}.
+         */
+        static Builder restored(List<Provider> roster, BitSet generatedIds, TermDictionary dictionary,
+                                ProviderIndex index, BioIndex bioIndex) {
+            var builder = new Builder(dictionary);
+            for (Provider provider : roster) {
+                builder.ordinals.put(provider.getId(), builder.providers.size());
+                builder.providers.add(provider);
+            }
+            builder.generatedIds.or(generatedIds);
+            builder.built = index;
+            builder.bioIndex = bioIndex;
+            return builder;
+        }
+
+        public Builder add(Provider provider) {
+            checkNotBuilt();
+            assignId(provider);
+            provider.encodeTerms(dictionary);
+            ordinals.put(provider.getId(), providers.size());
+            providers.add(provider);
+            index.add(provider);
+            return this;
+        }
+
+        public Builder addAll(List<Provider> roster) {
+            roster.forEach(this::add);
+            return this;
+        }
+
+        /**
+         * Appends a run of providers that a worker already encoded against
+         * {@code partialDictionary} and indexed into {@code partialIndex}, in
+         * the same order. Ids are still assigned and terms re-encoded here, in
+         * run order, so both come out exactly as in a one-by-one load.
+         */
+        public Builder addIndexed(List<Provider> run, TermDictionary partialDictionary,
+                                  ProviderIndex.Builder partialIndex) {
+            checkNotBuilt();
+            if (run.size() != partialIndex.size()) {
+                throw new IllegalArgumentException("Partial index holds " + partialIndex.size()
+                    + " providers but the run has " + run.size());
+            }
+            int[] termIds = new int[partialDictionary.size()];
+            for (int termId = 0; termId < termIds.length; termId++) {
+                termIds[termId] = dictionary.intern(partialDictionary.term(termId));
+            }
+            for (Provider provider : run) {
+                assignId(provider);
+                provider.encodeTerms(dictionary);
+                ordinals.put(provider.getId(), providers.size());
+                providers.add(provider);
+            }
+            index.addAll(partialIndex, termIds);
+            return this;
+        }
+
+        public int size() {
+            return providers.size();
+        }
+
+        TermDictionary dictionary() {
+            return dictionary;
+        }
+
+        List<Provider> providers() {
+            return Collections.unmodifiableList(providers);
+        }
+
+        /** Ordinals whose id was derived or suffixed rather than read from the roster. */
+        BitSet generatedIds() {
+            return (BitSet) generatedIds.clone();
+        }
+
+        /** Builds the index on first use; no more providers can be added afterwards. */
+        ProviderIndex index() {
+            if (built == null) built = index.build();
+            return built;
+        }
+
+        /** Indexes the bios on first use, after the roster is closed to additions. */
+        BioIndex bioIndex() {
+            index();
+            if (bioIndex == null) bioIndex = BioIndex.of(providers);
+            return bioIndex;
+        }
+
+        public RosterSnapshot build(long version) {
+            return build(version, RosterProperties.Storage.OBJECTS);
+        }
+
+        /** Builds the snapshot, copying the roster into columns first when asked to. */
+        public RosterSnapshot build(long version, RosterProperties.Storage storage) {
+            ProviderStore store = storage == RosterProperties.Storage.COLUMNAR
+                ? ColumnarProviderStore.of(providers)
+                : new ObjectProviderStore(Collections.unmodifiableList(providers), Collections.unmodifiableMap(ordinals));
+            return new RosterSnapshot(version, store, generatedIds(), dictionary, index(), bioIndex());
+        }
+
+        private void checkNotBuilt() {
+            if (built != null) throw new IllegalStateException("Roster index is already built");
+        }
+
+        /**
+         * Gives a provider without a roster id a stable slug of its name. Slugs
+         * and repeated roster ids get a numeric suffix so every id is unique.
+         */
+        private void assignId(Provider provider) {
+            boolean given = StringUtils.hasText(provider.getId());
+            String base = given ? provider.getId() : slug(provider);
+            String id = base;
+            for (int suffix = 2; ordinals.containsKey(id); suffix++) {
+                id = base + "-" + suffix;
+            }
+            if (!id.equals(base)) {
+                log.warn("Provider id {} is already taken, assigning {}; its reservations will not survive a reload",
+                    base, id);
+            }
+            if (!given || !id.equals(base)) generatedIds.set(providers.size());
+            provider.setId(id);
+        }
+
+        private static String slug(Provider provider) {
+            return (provider.getFirstName() + "-" + provider.getLastName())
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("[^a-z0-9]+", "-")
+                .replaceAll("(^-|-$)", "");
+        }
+    }
+}
@@ -0,0 +1,345 @@
+package com.anisehealth.matching.service;
+
+import com.anisehealth.matching.index.BioIndex;
+import com.anisehealth.matching.index.ProviderIndex;
+import com.anisehealth.matching.index.TermDictionary;
+import com.anisehealth.matching.model.Provider;
+import lombok.Value;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.CRC32;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.Checksum;
+
+/**
+ * Binary image of a built roster: the term dictionary, every provider's raw
+ * and processed fields, the finished {@link ProviderIndex} and the
+ * {@link BioIndex}. Restoring it skips CSV parsing, normalization and both
+ * index builds; only the {@link Provider} objects are still materialized.
+ *
+ * <p>The header carries a format version, a {@link Source} stamp of the CSV
+ * and a CRC32C of the CSV's bytes, so a snapshot written from another roster,
+ * another normalization table or an older layout is treated as stale. All
+ * strings are deduplicated into one table and referenced by index.
+ */
+final class RosterSnapshotFile {
+    static final int MAGIC = 0x414E5352; // "ANSR"
+    static final int FORMAT_VERSION = 5;
+
+    private static final String SYNONYM_TABLE = "/term-synonyms.csv";
+    private static final int NULL_REF = -1;
+
+    private RosterSnapshotFile() {
+    }
+
+    /**
+     * Stamps the CSV a snapshot was built from by its length and modification
+     * time, the same signal the roster watcher reloads on, plus a CRC32 of the
+     * small synonym table. A differing stamp rejects a snapshot without
+     * reading the CSV; a matching one is only a pre-check, confirmed against
+     * the checksum of the CSV's content.
+     */
+    @Value
+    static class Source {
+        long synonymChecksum;
+        long length;
+        long lastModified;
+
+        /** Stamps the resource without reading it, or returns empty when its length or time is unknown. */
+        static Optional<Source> of(Resource resource) {
+            try {
+                return Optional.of(new Source(synonymChecksum(), resource.contentLength(), resource.lastModified()));
+            } catch (IOException e) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    private static long synonymChecksum() {
+        var checksum = new CRC32();
+        try (InputStream table = RosterSnapshotFile.class.getResourceAsStream(SYNONYM_TABLE)) {
+            if (table != null) checksum.update(table.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return checksum.getValue();
+    }
+
+    /** A checksum to pass through the CSV as it is parsed, for {@link #write}. */
+    static Checksum contentChecksum() {
+        return new CRC32C();
+    }
+
+    /** Checksums the whole CSV; linear I/O, far cheaper than parsing it. */
+    static long contentChecksum(Resource csv) throws IOException {
+        try (var in = new CheckedInputStream(csv.getInputStream(), contentChecksum())) {
+            in.transferTo(OutputStream.nullOutputStream());
+            return in.getChecksum().getValue();
+        }
+    }
+
+    /**
+     * Writes to a temporary file beside {@code path}, then moves it into place.
+     * {@code contentChecksum} is the {@link #contentChecksum()} of the bytes the
+     * roster was parsed from.
+     */
+    static void write(Path path, Source source, long contentChecksum, RosterSnapshot.Builder roster,
+                      RosterLoadReport report) throws IOException {
+        List<Provider> providers = roster.providers();
+        ProviderIndex index = roster.index();
+        BioIndex bioIndex = roster.bioIndex();
+        TermDictionary dictionary = roster.dictionary();
+        int terms = dictionary.size();
+
+        var strings = new LinkedHashMap<String, Integer>();
+        for (int termId = 0; termId < terms; termId++) {
+            ref(strings, dictionary.term(termId));
+        }
+        for (Provider provider : providers) {
+            rawFields(provider).forEach(value -> ref(strings, value));
+            processedLists(provider).forEach(list -> list.forEach(value -> ref(strings, value)));
+        }
+
+        Path parent = path.toAbsolutePath().getParent();
+        Files.createDirectories(parent);
+        Path temp = Files.createTempFile(parent, path.getFileName().toString(), ".tmp");
+        try {
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT_VERSION);
+                out.writeLong(source.getSynonymChecksum());
+                out.writeLong(source.getLength());
+                out.writeLong(source.getLastModified());
+                out.writeLong(contentChecksum);
+                out.writeInt(report.getAcceptedRows());
+                out.writeInt(report.getRejectedRows());
+
+                out.writeInt(strings.size());
+                for (String value : strings.keySet()) {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+
+                out.writeInt(terms);
+                for (int termId = 0; termId < terms; termId++) {
+                    out.writeInt(strings.get(dictionary.term(termId)));
+                }
+
+                out.writeInt(providers.size());
+                for (Provider provider : providers) {
+                    writeProvider(out, provider, strings);
+                }
+                long[] generatedIds = roster.generatedIds().toLongArray();
+                out.writeInt(generatedIds.length);
+                for (long word : generatedIds) {
+                    out.writeLong(word);
+                }
+                index.write(out);
+                bioIndex.write(out);
+            }
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Memory-maps the snapshot and restores the roster, or returns empty when
+     * the file is missing or was written for a different source or format.
+     * The CSV is only read, to compare its checksum, when the stamps match.
+     *
+     * @throws IOException if the file cannot be read or is truncated
+     */
+    static Optional<Restored> read(Path path, Source expected, Resource csv, String source) throws IOException {
+        if (!Files.isRegularFile(path)) return Optional.empty();
+        ByteBuffer in;
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            in = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        try {
+            if (in.getInt() != MAGIC || in.getInt() != FORMAT_VERSION
+                || !expected.equals(new Source(in.getLong(), in.getLong(), in.getLong()))
+                || in.getLong() != contentChecksum(csv)) {
+                return Optional.empty();
+            }
+            var report = new RosterLoadReport(source);
+            report.restored(in.getInt(), in.getInt());
+
+            String[] strings = new String[in.getInt()];
+            for (int i = 0; i < strings.length; i++) {
+                byte[] bytes = new byte[in.getInt()];
+                in.get(bytes);
+                strings[i] = bytes.length == 0 ? "" : new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            // Interning the writer's terms in id order into a fresh dictionary reproduces its ids
+            int[] termIds = new int[in.getInt()];
+            var dictionary = new TermDictionary();
+            for (int termId = 0; termId < termIds.length; termId++) {
+                termIds[termId] = dictionary.intern(strings[in.getInt()]);
+            }
+
+            int count = in.getInt();
+            var providers = new ArrayList<Provider>(count);
+            for (int i = 0; i < count; i++) {
+                providers.add(readProvider(in, strings, termIds));
+            }
+            long[] generatedIds = new long[in.getInt()];
+            for (int i = 0; i < generatedIds.length; i++) {
+                generatedIds[i] = in.getLong();
+            }
+            ProviderIndex index = ProviderIndex.read(in, termIds);
+            if (index.size() != providers.size()) {
+                throw new IOException("Snapshot index covers " + index.size() + " providers, roster has " + providers.size());
+            }
+            BioIndex bioIndex = BioIndex.read(in);
+            if (bioIndex.size() != providers.size()) {
+                throw new IOException("Snapshot bio index covers " + bioIndex.size() + " providers, roster has " + providers.size());
+            }
+            var roster = RosterSnapshot.Builder.restored(providers, BitSet.valueOf(generatedIds), dictionary,
+                index, bioIndex);
+            return Optional.of(new Restored(roster, report));
+        } catch (RuntimeException e) {
+            throw new IOException("Corrupt roster snapshot " + path + ": " + e, e);
+        }
+    }
+
+    @Value
+    static class Restored {
+        RosterSnapshot.Builder roster;
+        RosterLoadReport report;
+    }
+
+    private static List<String> rawFields(Provider provider) {
+        return Arrays.asList(provider.getId(), provider.getFirstName(), provider.getLastName(),
+            provider.getEthnicIdentity(), provider.getGenderIdentity(), provider.getLanguage(),
+            provider.getLocation(), provider.getBio(), provider.getSexualOrientation(),
+            provider.getReligiousBackground(), provider.getTreatmentModality(),
+            provider.getAreasOfSpecialization(), provider.getAcceptedPaymentMethods(),
+            provider.getAcceptedInsuranceProviders());
+    }
+
+    private static List<List<String>> processedLists(Provider provider) {
+        return List.of(orEmpty(provider.getLanguages()), orEmpty(provider.getTreatmentModalities()),
+            orEmpty(provider.getSpecializationAreas()));
+    }
+
+    private static void writeProvider(DataOutputStream out, Provider provider, Map<String, Integer> strings)
+            throws IOException {
+        for (String value : rawFields(provider)) {
+            out.writeInt(value != null ? strings.get(value) : NULL_REF);
+        }
+        Integer capacity = provider.getAvailableCapacity();
+        out.writeInt(capacity != null ? capacity + provider.getReservedSlots() : NULL_REF);
+        for (List<String> list : processedLists(provider)) {
+            out.writeInt(list.size());
+            for (String value : list) {
+                out.writeInt(strings.get(value));
+            }
+        }
+        writeIds(out, provider.getLanguageIds());
+        writeIds(out, provider.getTreatmentModalityIds());
+        writeIds(out, provider.getSpecializationAreaIds());
+        out.writeInt(provider.getGenderId());
+        out.writeInt(provider.getEthnicityId());
+        out.writeInt(provider.getReligionId());
+        out.writeLong(provider.getLocationMask());
+        out.writeInt(provider.getPaymentMethodMask());
+        out.writeInt(provider.getInsuranceProviderMask());
+    }
+
+    private static Provider readProvider(ByteBuffer in, String[] strings, int[] termIds) {
+        var provider = new Provider();
+        provider.setId(string(in, strings));
+        provider.setFirstName(string(in, strings));
+        provider.setLastName(string(in, strings));
+        provider.setEthnicIdentity(string(in, strings));
+        provider.setGenderIdentity(string(in, strings));
+        provider.setLanguage(string(in, strings));
+        provider.setLocation(string(in, strings));
+        provider.setBio(string(in, strings));
+        provider.setSexualOrientation(string(in, strings));
+        provider.setReligiousBackground(string(in, strings));
+        provider.setTreatmentModality(string(in, strings));
+        provider.setAreasOfSpecialization(string(in, strings));
+        provider.setAcceptedPaymentMethods(string(in, strings));
+        provider.setAcceptedInsuranceProviders(string(in, strings));
+        int capacity = in.getInt();
+        provider.setAvailableCapacity(capacity != NULL_REF ? capacity : null);
+        provider.setProcessedTerms(strings(in, strings), strings(in, strings), strings(in, strings));
+        provider.setLanguageIds(ids(in, termIds));
+        provider.setTreatmentModalityIds(ids(in, termIds));
+        provider.setSpecializationAreaIds(ids(in, termIds));
+        provider.setGenderId(id(in.getInt(), termIds));
+        provider.setEthnicityId(id(in.getInt(), termIds));
+        provider.setReligionId(id(in.getInt(), termIds));
+        provider.setLocationMask(in.getLong());
+        provider.setPaymentMethodMask(in.getInt());
+        provider.setInsuranceProviderMask(in.getInt());
+        return provider;
+    }
+
+    private static void ref(Map<String, Integer> strings, String value) {
+        if (value != null) strings.putIfAbsent(value, strings.size());
+    }
+
+    private static List<String> orEmpty(List<String> list) {
+        return list != null ? list : List.of();
+    }
+
+    private static void writeIds(DataOutputStream out, int[] ids) throws IOException {
+        out.writeInt(ids.length);
+        for (int id : ids) {
+            out.writeInt(id);
+        }
+    }
+
+    private static String string(ByteBuffer in, String[] strings) {
+        int ref = in.getInt();
+        return ref != NULL_REF ? strings[ref] : null;
+    }
+
+    private static List<String> strings(ByteBuffer in, String[] strings) {
+        String[] values = new String[in.getInt()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = strings[in.getInt()];
+        }
+        return List.of(values);
+    }
+
+    /** Reads term ids and translates them, re-sorting since the mapping need not preserve order. */
+    private static int[] ids(ByteBuffer in, int[] termIds) {
+        int[] ids = new int[in.getInt()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = termIds[in.getInt()];
+        }
+        Arrays.sort(ids);
+        return ids;
+    }
+
+    private static int id(int termId, int[] termIds) {
+        return termId >= 0 ? termIds[termId] : termId;
+    }
+}
@@ -0,0 +1,95 @@
+package com.anisehealth.matching.service;
+
+import com.anisehealth.matching.index.ProviderIndex;
+
+/**
+ * Keeps the K best-scoring roster ordinals seen so far in a fixed-size
+ * min-heap, so ranking costs O(n log K) with one score per candidate instead
+ * of a full sort. Equal scores are ordered by {@link ProviderIndex#tieBreakRank}.
+ */
+final class TopKSelector {
+    private final ProviderIndex index;
+    private final int[] ordinals;
+    private final int[] scores;
+    private int size;
+
+    TopKSelector(int k, ProviderIndex index) {
+        this.index = index;
+        this.ordinals = new int[k];
+        this.scores = new int[k];
+    }
+
+    void offer(int ordinal, int score) {
+        if (size < ordinals.length) {
+            ordinals[size] = ordinal;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (size > 0 && outranks(ordinal, score, ordinals[0], scores[0])) {
+            ordinals[0] = ordinal;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /** Drains the heap, returning the selected ordinals best first. */
+    int[] ordinalsBestFirst() {
+        int[] result = new int[size];
+        drainBestFirst(result, new int[size]);
+        return result;
+    }
+
+    /** Drains the heap into the arrays best first; both need room for {@link #size()} entries. */
+    void drainBestFirst(int[] ordinalsOut, int[] scoresOut) {
+        for (int i = size - 1; i >= 0; i--) {
+            ordinalsOut[i] = ordinals[0];
+            scoresOut[i] = scores[0];
+            swap(0, --size);
+            siftDown(0);
+        }
+    }
+
+    private boolean outranks(int ordinal, int score, int otherOrdinal, int otherScore) {
+        if (score != otherScore) return score > otherScore;
+        return index.tieBreakRank(ordinal) < index.tieBreakRank(otherOrdinal);
+    }
+
+    /** Heap order keeps the weakest entry at the root. */
+    private boolean weaker(int i, int j) {
+        return outranks(ordinals[j], scores[j], ordinals[i], scores[i]);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!weaker(i, parent)) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) break;
+            int weakest = left;
+            int right = left + 1;
+            if (right < size && weaker(right, left)) weakest = right;
+            if (!weaker(weakest, i)) break;
+            swap(i, weakest);
+            i = weakest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int ordinal = ordinals[i];
+        int score = scores[i];
+        ordinals[i] = ordinals[j];
+        scores[i] = scores[j];
+        ordinals[j] = ordinal;
+        scores[j] = score;
+    }
+}
@@ -0,0 +1,90 @@
+package com.anisehealth.matching.config;
+
+import com.anisehealth.matching.controller.ProviderController;
+import com.anisehealth.matching.model.ReservationResponse;
+import com.anisehealth.matching.service.BulkAssignmentService;
+import com.anisehealth.matching.service.ProviderMatchingService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(ProviderController.class)
+@Import(SecurityConfig.class)
+@TestPropertySource(properties = "app.security.api-keys=scheduler-key,intake-key")
+class SecurityConfigTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ProviderMatchingService matchingService;
+
+    @MockBean
+    private BulkAssignmentService assignmentService;
+
+    @Test
+    void reservations_WithoutCredentials_AreUnauthorized() throws Exception {
+        mockMvc.perform(post("/api/providers/john-doe/reservations"))
+            .andExpect(status().isUnauthorized());
+        mockMvc.perform(delete("/api/providers/john-doe/reservations"))
+            .andExpect(status().isUnauthorized());
+
+        verify(matchingService, never()).reserve("john-doe");
+        verify(matchingService, never()).release("john-doe");
+    }
+
+    @Test
+    void reserve_WithApiKey_ReservesSlot() throws Exception {
+        when(matchingService.reserve("john-doe"))
+            .thenReturn(Optional.of(new ReservationResponse("john-doe", true, 2)));
+
+        mockMvc.perform(post("/api/providers/john-doe/reservations").header("X-API-Key", "intake-key"))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void release_WithApiKey_ReleasesSlot() throws Exception {
+        when(matchingService.release("john-doe"))
+            .thenReturn(Optional.of(new ReservationResponse("john-doe", true, 3)));
+
+        mockMvc.perform(delete("/api/providers/john-doe/reservations").header("X-API-Key", "scheduler-key"))
+            .andExpect(status().isOk());
+    }
+
+    @Test
+    void reservations_WithUnknownApiKey_AreUnauthorized() throws Exception {
+        mockMvc.perform(post("/api/providers/john-doe/reservations").header("X-API-Key", "guessed-key"))
+            .andExpect(status().isUnauthorized());
+
+        verify(matchingService, never()).reserve("john-doe");
+    }
+
+    @Test
+    void prometheusScrape_WithoutCredentials_IsUnauthorized() throws Exception {
+        mockMvc.perform(get("/actuator/prometheus"))
+            .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void search_WithoutCredentials_StaysOpen() throws Exception {
+        when(matchingService.searchBios("anxiety", 10)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/providers/search").param("q", "anxiety"))
+            .andExpect(status().isOk());
+    }
+}
@@ -1,7 +1,14 @@
 package com.anisehealth.matching.controller;
 
+import com.anisehealth.matching.model.BatchMatchResult;
+import com.anisehealth.matching.model.BioSearchResult;
+import com.anisehealth.matching.model.BulkAssignment;
+import com.anisehealth.matching.model.MatchExplanation;
 import com.anisehealth.matching.model.PatientRequest;
 import com.anisehealth.matching.model.Provider;
+import com.anisehealth.matching.model.RelaxedMatch;
+import com.anisehealth.matching.model.ReservationResponse;
+import com.anisehealth.matching.service.BulkAssignmentService;
 import com.anisehealth.matching.service.ProviderMatchingService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,13 +21,25 @@ import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -34,6 +53,9 @@ class ProviderControllerTest {
     @MockBean
     private ProviderMatchingService matchingService;
 
+    @MockBean
+    private BulkAssignmentService assignmentService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -79,6 +101,55 @@ class ProviderControllerTest {
         mockProvider.processRawFields();
     }
 
+    @Test
+    void searchBios_ReturnsProvidersWithRelevance() throws Exception {
+        when(matchingService.searchBios("panic attacks", 10))
+            .thenReturn(List.of(new BioSearchResult(mockProvider, 2.5)));
+
+        mockMvc.perform(get("/api/providers/search").param("q", "panic attacks"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].lastName").value("Doe"))
+            .andExpect(jsonPath("$[0].relevance").value(2.5));
+    }
+
+    @Test
+    void searchBios_WithBlankQuery_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/providers/search").param("q", " "))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findMatchesRelaxed_ReturnsProvidersWithRelaxedConstraints() throws Exception {
+        when(matchingService.findMatchesRelaxed(any(PatientRequest.class)))
+            .thenReturn(List.of(new RelaxedMatch(mockProvider, List.of("religion", "gender"))));
+
+        mockMvc.perform(post("/api/providers/match/relaxed")
+                .with(SecurityMockMvcRequestPostProcessors.csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validRequest)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$[0].firstName").value("John"))
+            .andExpect(jsonPath("$[0].relaxedConstraints[1]").value("gender"));
+    }
+
+    @Test
+    void explain_ReturnsStagesAndRankedMatches() throws Exception {
+        var stage = new MatchExplanation.Stage("location", "CA", 1, 3, 1,
+            List.of(new MatchExplanation.Exclusion("jane-roe", "Jane Roe", "NY")));
+        var match = new MatchExplanation.RankedMatch("john-doe", "John Doe", 12, Map.of("areaOverlap", 10, "profile", 2));
+        when(matchingService.explain(any(PatientRequest.class)))
+            .thenReturn(new MatchExplanation(3, "location~1 of 3", List.of(stage), List.of(match)));
+
+        mockMvc.perform(post("/api/providers/match/explain")
+                .with(SecurityMockMvcRequestPostProcessors.csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(validRequest)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.stages[0].candidatesOut").value(1))
+            .andExpect(jsonPath("$.stages[0].excluded[0].providerValue").value("NY"))
+            .andExpect(jsonPath("$.matches[0].breakdown.areaOverlap").value(10));
+    }
+
     @Test
     void findMatches_WithValidRequest_ReturnsOkResponse() throws Exception {
         when(matchingService.findMatches(any(PatientRequest.class)))
@@ -173,4 +244,109 @@ class ProviderControllerTest {
                 .content(invalidJson))
             .andExpect(status().isBadRequest());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void findMatchesBatch_StreamsOneLinePerRequestInOrder() throws Exception {
+        when(matchingService.findMatchesBatch(anyList(), eq(true)))
+            .thenReturn(Stream.of(
+                new BatchMatchResult(0, List.of(mockProvider), "john-doe"),
+                new BatchMatchResult(1, List.of(), null)));
+
+        MvcResult result = mockMvc.perform(post("/api/providers/match/batch")
+                .param("capacityAware", "true")
+                .with(SecurityMockMvcRequestPostProcessors.csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(validRequest, validRequest))))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+        String[] lines = mockMvc.perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+            .andReturn().getResponse().getContentAsString().split("\n");
+
+        assertEquals(2, lines.length);
+        assertEquals("john-doe", objectMapper.readTree(lines[0]).get("assignedProviderId").asText());
+        assertEquals("John", objectMapper.readTree(lines[0]).get("matches").get(0).get("firstName").asText());
+        assertEquals(1, objectMapper.readTree(lines[1]).get("index").asInt());
+        assertFalse(objectMapper.readTree(lines[1]).has("assignedProviderId"));
+    }
+
+    @Test
+    void findMatchesBatch_WithInvalidRequest_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/providers/match/batch")
+                .with(SecurityMockMvcRequestPostProcessors.csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(validRequest, new PatientRequest()))))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findMatchesBatch_WithEmptyBatch_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/providers/match/batch")
+                .with(SecurityMockMvcRequestPostProcessors.csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("[]"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void assign_ReturnsOneAssignmentPerRequest() throws Exception {
+        when(assignmentService.assign(anyList(), eq(BulkAssignment.Strategy.GREEDY)))
+            .thenReturn(new BulkAssignment(BulkAssignment.Strategy.GREEDY, List.of(
+                new BulkAssignment.Assignment(0, "john-doe", 42),
+                new BulkAssignment.Assignment(1, null, null)), 42, 1));
+
+        mockMvc.perform(post("/api/providers/assignments")
+                .param("strategy", "GREEDY")
+                .with(SecurityMockMvcRequestPostProcessors.csrf())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(List.of(validRequest, validRequest))))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.totalScore").value(42))
+            .andExpect(jsonPath("$.assignments[0].providerId").value("john-doe"))
+            .andExpect(jsonPath("$.assignments[1].providerId").doesNotExist());
+    }
+
+    @Test
+    void reserve_WithOpenSlot_ReturnsOk() throws Exception {
+        when(matchingService.reserve("john-doe"))
+            .thenReturn(Optional.of(new ReservationResponse("john-doe", true, 2)));
+
+        mockMvc.perform(post("/api/providers/john-doe/reservations")
+                .with(SecurityMockMvcRequestPostProcessors.csrf()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.applied").value(true))
+            .andExpect(jsonPath("$.availableCapacity").value(2));
+    }
+
+    @Test
+    void reserve_WhenProviderIsFull_ReturnsConflict() throws Exception {
+        when(matchingService.reserve("john-doe"))
+            .thenReturn(Optional.of(new ReservationResponse("john-doe", false, 0)));
+
+        mockMvc.perform(post("/api/providers/john-doe/reservations")
+                .with(SecurityMockMvcRequestPostProcessors.csrf()))
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    void reserve_WhenCapacityIsBlank_ReturnsConflictWithNullCapacity() throws Exception {
+        when(matchingService.reserve("john-doe"))
+            .thenReturn(Optional.of(new ReservationResponse("john-doe", false, null)));
+
+        mockMvc.perform(post("/api/providers/john-doe/reservations")
+                .with(SecurityMockMvcRequestPostProcessors.csrf()))
+            .andExpect(status().isConflict())
+            .andExpect(jsonPath("$.availableCapacity").value(nullValue()));
+    }
+
+    @Test
+    void release_WithUnknownProvider_ReturnsNotFound() throws Exception {
+        when(matchingService.release("nobody")).thenReturn(Optional.empty());
+
+        mockMvc.perform(delete("/api/providers/nobody/reservations")
+                .with(SecurityMockMvcRequestPostProcessors.csrf()))
+            .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,100 @@
+package com.anisehealth.matching.controller;
+
+import com.anisehealth.matching.model.PatientRequest;
+import com.anisehealth.matching.model.Provider;
+import com.anisehealth.matching.service.ProviderMatchingService;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReactiveMatchRouterTest {
+    private static final String VALID_REQUEST = """
+        {"location": "CA", "areasOfConcern": ["Anxiety"], "treatmentModality": ["CBT"],
+         "demographics": {"ethnicity": "Asian", "gender": "Female", "religion": "None", "maritalStatus": "Single"},
+         "paymentMethod": "insurance", "insuranceProvider": "Aetna"}
+        """;
+
+    private ProviderMatchingService matchingService;
+    private WebTestClient client;
+
+    @BeforeEach
+    void setUp() {
+        matchingService = mock(ProviderMatchingService.class);
+        var validator = Validation.buildDefaultValidatorFactory().getValidator();
+        client = WebTestClient
+            .bindToRouterFunction(new ReactiveMatchRouter().matchRoutes(matchingService, validator))
+            .build();
+    }
+
+    @Test
+    void findMatches_DecodesCustomEnumsAndReturnsMatches() {
+        var provider = new Provider();
+        provider.setFirstName("John");
+        provider.setLastName("Doe");
+        when(matchingService.findMatches(any(PatientRequest.class))).thenReturn(List.of(provider));
+
+        client.post().uri("/api/providers/match")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(VALID_REQUEST)
+            .exchange()
+            .expectStatus().isOk()
+            .expectBody()
+            .jsonPath("$[0].firstName").isEqualTo("John");
+
+        var captured = ArgumentCaptor.forClass(PatientRequest.class);
+        verify(matchingService).findMatches(captured.capture());
+        assertEquals(PatientRequest.PaymentMethod.INSURANCE, captured.getValue().getPaymentMethod());
+        assertEquals(PatientRequest.InsuranceProvider.AETNA, captured.getValue().getInsuranceProvider());
+    }
+
+    @Test
+    void findMatches_RunsMatchingOnParallelScheduler() {
+        var matchingThread = new AtomicReference<String>();
+        when(matchingService.findMatches(any(PatientRequest.class))).thenAnswer(invocation -> {
+            matchingThread.set(Thread.currentThread().getName());
+            return List.of();
+        });
+
+        client.post().uri("/api/providers/match")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(VALID_REQUEST)
+            .exchange()
+            .expectStatus().isOk();
+
+        assertTrue(matchingThread.get().startsWith("parallel-"), matchingThread.get());
+    }
+
+    @Test
+    void findMatches_WithMissingRequiredFields_ReturnsBadRequest() {
+        client.post().uri("/api/providers/match")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue("{\"location\": \"CA\"}")
+            .exchange()
+            .expectStatus().isBadRequest();
+
+        verify(matchingService, never()).findMatches(any());
+    }
+
+    @Test
+    void findMatches_WithInvalidPaymentMethod_ReturnsBadRequest() {
+        client.post().uri("/api/providers/match")
+            .contentType(MediaType.APPLICATION_JSON)
+            .bodyValue(VALID_REQUEST.replace("\"insurance\"", "\"barter\""))
+            .exchange()
+            .expectStatus().isBadRequest();
+    }
+}
@@ -0,0 +1,29 @@
+package com.anisehealth.matching.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BioAnalyzerTest {
+
+    @Test
+    void terms_SplitsLowerCasesAndDropsStopWords() {
+        assertEquals(List.of("cognit", "behavior", "approach", "panic", "attack"),
+            BioAnalyzer.terms("A Cognitive-Behavioral approach to the panic attacks."));
+    }
+
+    @Test
+    void stem_ConflatesInflectedForms() {
+        assertEquals(BioAnalyzer.stem("approach"), BioAnalyzer.stem("approaches"));
+        assertEquals(BioAnalyzer.stem("resilience"), BioAnalyzer.stem("resilient"));
+        assertEquals(BioAnalyzer.stem("therapy"), BioAnalyzer.stem("therapies"));
+    }
+
+    @Test
+    void terms_OfNullOrBlankTextAreEmpty() {
+        assertTrue(BioAnalyzer.terms(null).isEmpty());
+        assertTrue(BioAnalyzer.terms("  -- ").isEmpty());
+    }
+}
@@ -0,0 +1,81 @@
+package com.anisehealth.matching.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.nio.ByteBuffer;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BioIndexTest {
+
+    private static BioIndex index(String... bios) {
+        var builder = BioIndex.builder();
+        for (String bio : bios) builder.add(bio);
+        return builder.build();
+    }
+
+    @Test
+    void relevance_ScoresOnlyBiosSharingATerm() {
+        var index = index("Panic attacks and phobias", "Grief counseling", null, "Helping with panic");
+
+        var relevance = index.relevance(BioAnalyzer.terms("panic attack"));
+
+        assertEquals(2, relevance.size());
+        assertTrue(relevance.of(0) > relevance.of(3));
+        assertEquals(0, relevance.of(1));
+        assertEquals(0, relevance.of(2));
+    }
+
+    @Test
+    void relevance_WeighsRareTermsAndRepeatsHigher() {
+        var index = index("trauma trauma trauma", "trauma anxiety", "anxiety", "anxiety", "anxiety");
+
+        var trauma = index.relevance(BioAnalyzer.terms("trauma"));
+        var anxiety = index.relevance(BioAnalyzer.terms("anxiety"));
+
+        assertTrue(trauma.of(0) > trauma.of(1));
+        assertTrue(trauma.of(1) > anxiety.of(1));
+    }
+
+    @Test
+    void relevance_DecodesGapsAcrossVarintBoundaries() {
+        var builder = BioIndex.builder();
+        for (int ordinal = 0; ordinal < 100_000; ordinal++) {
+            builder.add(ordinal % 300 == 0 || ordinal == 99_999 ? "resilience" : "grief");
+        }
+        var index = builder.build();
+
+        var relevance = index.relevance(List.of(BioAnalyzer.stem("resilient")));
+
+        assertEquals(100_000 / 300 + 2, relevance.size());
+        assertTrue(relevance.of(99_999) > 0);
+        assertTrue(relevance.of(600) > 0);
+        assertEquals(0, relevance.of(601));
+        // One byte per gap under 128 and per frequency; "grief" gaps are all 1
+        assertTrue(index.postingBytes() < 100_000 * 2 + 2_000);
+        assertEquals(2, index.terms());
+    }
+
+    @Test
+    void read_RestoresWhatWriteStored() throws Exception {
+        var index = index("Panic attacks and phobias", null, "Grief after loss, panic", "Résilience");
+        var bytes = new ByteArrayOutputStream();
+        index.write(new DataOutputStream(bytes));
+
+        var restored = BioIndex.read(ByteBuffer.wrap(bytes.toByteArray()));
+
+        assertEquals(index.size(), restored.size());
+        assertEquals(index.terms(), restored.terms());
+        assertEquals(index.postingBytes(), restored.postingBytes());
+        var terms = BioAnalyzer.terms("panic grief résilience");
+        var expected = index.relevance(terms);
+        var actual = restored.relevance(terms);
+        for (int ordinal = 0; ordinal < index.size(); ordinal++) {
+            assertEquals(expected.of(ordinal), actual.of(ordinal));
+        }
+        assertTrue(actual.of(3) > 0);
+    }
+}
@@ -0,0 +1,98 @@
+package com.anisehealth.matching.index;
+
+import com.anisehealth.matching.model.PatientRequest;
+import com.anisehealth.matching.model.Provider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchPlanTest {
+    private final TermDictionary dictionary = new TermDictionary();
+    private ProviderIndex index;
+
+    @BeforeEach
+    void setUp() {
+        var providers = new ArrayList<Provider>();
+        for (int i = 0; i < 10; i++) {
+            providers.add(provider(i < 9 ? "NY" : "CA", i == 0 ? "Korean" : "English", i % 2 == 0 ? "Female" : "Male"));
+        }
+        index = ProviderIndex.of(providers);
+    }
+
+    private Provider provider(String location, String language, String gender) {
+        var provider = new Provider();
+        provider.setLocation(location);
+        provider.setLanguage(language);
+        provider.setGenderIdentity(gender);
+        provider.setTreatmentModality("CBT");
+        provider.setAreasOfSpecialization("Anxiety,Depression");
+        provider.setAcceptedPaymentMethods("SELF_PAY");
+        provider.processRawFields();
+        provider.encodeTerms(dictionary);
+        return provider;
+    }
+
+    private MatchQuery query(String language, String gender) {
+        var request = new PatientRequest();
+        request.setLocation("NY");
+        request.setAreasOfConcern(List.of("Anxiety", "Depression"));
+        request.setTreatmentModality(List.of("CBT"));
+        var preferences = new PatientRequest.TherapistPreferences();
+        preferences.setPreferredLanguage(language);
+        preferences.setPreferredGender(gender);
+        request.setTherapistPreferences(preferences);
+        return MatchQuery.of(request, dictionary);
+    }
+
+    private List<MatchPlan.Predicate> order(MatchPlan plan) {
+        return plan.getSteps().stream().map(MatchPlan.Step::getPredicate).toList();
+    }
+
+    @Test
+    void of_OrdersPredicatesByEstimatedCardinality() {
+        var plan = MatchPlan.of(index, query("Korean", "Female"));
+
+        assertEquals(List.of(MatchPlan.Predicate.LANGUAGE, MatchPlan.Predicate.GENDER, MatchPlan.Predicate.LOCATION,
+            MatchPlan.Predicate.AREAS, MatchPlan.Predicate.MODALITY), order(plan));
+        assertEquals(List.of(1, 5, 9, 10, 10),
+            plan.getSteps().stream().map(MatchPlan.Step::getEstimatedCandidates).toList());
+        assertEquals("language~1 > gender~5 > location~9 > areas~10 > modality~10 of 10", plan.explain());
+    }
+
+    @Test
+    void of_SkipsPredicatesTheRequestLeavesOpen() {
+        var plan = MatchPlan.of(index, query("Any", null));
+
+        assertEquals(List.of(MatchPlan.Predicate.LOCATION, MatchPlan.Predicate.AREAS, MatchPlan.Predicate.MODALITY),
+            order(plan));
+    }
+
+    @Test
+    void execute_MatchesEveryPredicateRegardlessOfOrder() {
+        var plan = MatchPlan.of(index, query("English", "Female"));
+        var seen = new ArrayList<MatchPlan.Predicate>();
+
+        BitSet candidates = plan.execute(index, (predicate, survivors) -> seen.add(predicate));
+
+        var expected = new BitSet();
+        for (int ordinal = 2; ordinal < 9; ordinal += 2) expected.set(ordinal);
+        assertEquals(expected, candidates);
+        assertEquals(order(plan), seen);
+    }
+
+    @Test
+    void execute_StopsOnceNoCandidatesRemain() {
+        var plan = MatchPlan.of(index, query("Klingon", "Female"));
+        var seen = new ArrayList<MatchPlan.Predicate>();
+
+        BitSet candidates = plan.execute(index, (predicate, survivors) -> seen.add(predicate));
+
+        assertTrue(candidates.isEmpty());
+        assertEquals(List.of(MatchPlan.Predicate.LANGUAGE), seen);
+    }
+}
@@ -0,0 +1,148 @@
+package com.anisehealth.matching.index;
+
+import com.anisehealth.matching.model.PatientRequest;
+import com.anisehealth.matching.model.Provider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProviderIndexTest {
+    private final TermDictionary dictionary = new TermDictionary();
+    private ProviderIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = ProviderIndex.of(List.of(
+            provider("Female", "Buddhist", "English,Mandarin", "CBT,DBT", "Anxiety,Depression"),
+            provider("Male", "None", "English", "MI", "Depression"),
+            provider("Female", "Catholic", "Korean", "ACT", "Worry")));
+    }
+
+    private Provider provider(String gender, String religion, String languages, String modalities, String areas) {
+        var provider = new Provider();
+        provider.setGenderIdentity(gender);
+        provider.setEthnicIdentity("East Asian");
+        provider.setReligiousBackground(religion);
+        provider.setLanguage(languages);
+        provider.setTreatmentModality(modalities);
+        provider.setAreasOfSpecialization(areas);
+        provider.processRawFields();
+        provider.encodeTerms(dictionary);
+        return provider;
+    }
+
+    private int[] ids(String... terms) {
+        return Arrays.stream(terms).mapToInt(dictionary::lookup).toArray();
+    }
+
+    private int id(String term) {
+        return dictionary.lookup(term);
+    }
+
+    private BitSet bits(int... ordinals) {
+        var bits = new BitSet();
+        for (int ordinal : ordinals) bits.set(ordinal);
+        return bits;
+    }
+
+    @Test
+    void anyOf_UnionsPostingsIgnoringCase() {
+        assertEquals(bits(0, 1, 2), index.anyOf(ProviderIndex.Field.SPECIALIZATION_AREA, ids("depression", "WORRY")));
+        assertEquals(bits(0), index.anyOf(ProviderIndex.Field.TREATMENT_MODALITY, ids("cbt")));
+    }
+
+    @Test
+    void anyOf_WithUnknownOrMissingTerms_ReturnsEmptySet() {
+        assertTrue(index.anyOf(ProviderIndex.Field.LANGUAGE, new int[] {TermDictionary.UNKNOWN}).isEmpty());
+        assertTrue(index.anyOf(ProviderIndex.Field.LANGUAGE, ids("Buddhist")).isEmpty());
+        assertTrue(index.anyOf(ProviderIndex.Field.LANGUAGE, new int[0]).isEmpty());
+    }
+
+    @Test
+    void retainMatching_IntersectsWithPosting() {
+        var candidates = bits(0, 1, 2);
+        index.retainMatching(candidates, ProviderIndex.Field.GENDER, id("female"));
+        index.retainMatching(candidates, ProviderIndex.Field.LANGUAGE, id("English"));
+        assertEquals(bits(0), candidates);
+    }
+
+    @Test
+    void retainMatching_DoesNotMutatePostings() {
+        var candidates = bits(1);
+        index.retainMatching(candidates, ProviderIndex.Field.RELIGION, id("Buddhist"));
+        assertTrue(candidates.isEmpty());
+        assertEquals(bits(0), index.anyOf(ProviderIndex.Field.RELIGION, ids("Buddhist")));
+        assertEquals(3, index.size());
+    }
+
+    @Test
+    void statistics_CountPostingsWithoutScanning() {
+        assertEquals(2, index.count(ProviderIndex.Field.GENDER, id("female")));
+        assertEquals(0, index.count(ProviderIndex.Field.GENDER, TermDictionary.UNKNOWN));
+        assertEquals(3, index.estimateAnyOf(ProviderIndex.Field.SPECIALIZATION_AREA, ids("anxiety", "depression", "worry")));
+        assertEquals(2, index.estimateAnyOf(ProviderIndex.Field.LANGUAGE, ids("english")));
+        assertEquals(3, index.countPaymentEligible(null, null));
+        assertEquals(3, index.countPaymentEligible(PatientRequest.PaymentMethod.SELF_PAY, null));
+    }
+
+    @Test
+    void retainPaymentEligible_WithOnlyUnknownInsurers_KeepsOnlyBlankColumns() {
+        var unknown = provider("Male", "None", "English", "MI", "Depression");
+        unknown.setAcceptedPaymentMethods("Insurance");
+        unknown.setAcceptedInsuranceProviders("Cigna");
+        unknown.processRawFields();
+        var blank = provider("Male", "None", "English", "MI", "Depression");
+        var index = ProviderIndex.of(List.of(unknown, blank));
+
+        var eligible = bits(0, 1);
+        index.retainPaymentEligible(eligible, PatientRequest.PaymentMethod.INSURANCE, PatientRequest.InsuranceProvider.AETNA);
+
+        assertEquals(bits(1), eligible);
+    }
+
+    @Test
+    void addAll_MergedPartialsMatchSequentialBuild() {
+        var first = provider("Female", "Buddhist", "English,Mandarin", "CBT,DBT", "Anxiety,Depression");
+        var second = provider("Male", "None", "English", "MI", "Depression");
+        var third = provider("Female", "Catholic", "Korean", "ACT", "Worry");
+        first.setLastName("Zhou");
+        third.setLastName("Abe");
+        var head = ProviderIndex.builder();
+        head.add(first);
+        // The tail is keyed by its own dictionary, so its term ids differ from the head's
+        var tailDictionary = new TermDictionary();
+        var tail = ProviderIndex.builder();
+        second.encodeTerms(tailDictionary);
+        third.encodeTerms(tailDictionary);
+        tail.add(second);
+        tail.add(third);
+        int[] termIds = new int[tailDictionary.size()];
+        for (int termId = 0; termId < termIds.length; termId++) {
+            termIds[termId] = dictionary.lookup(tailDictionary.term(termId));
+        }
+        second.encodeTerms(dictionary);
+        third.encodeTerms(dictionary);
+
+        var merged = head.addAll(tail, termIds).build();
+        var sequential = ProviderIndex.of(List.of(first, second, third));
+
+        assertEquals(3, merged.size());
+        for (var field : ProviderIndex.Field.values()) {
+            var terms = ids("depression", "worry", "cbt", "mi", "act", "english", "korean", "female", "male", "catholic", "none");
+            for (int termId : terms) {
+                assertEquals(sequential.anyOf(field, new int[] {termId}), merged.anyOf(field, new int[] {termId}));
+            }
+        }
+        for (int ordinal = 0; ordinal < 3; ordinal++) {
+            assertEquals(sequential.tieBreakRank(ordinal), merged.tieBreakRank(ordinal));
+        }
+        var eligible = bits(0, 1, 2);
+        merged.retainPaymentEligible(eligible, PatientRequest.PaymentMethod.SELF_PAY, null);
+        assertEquals(bits(0, 1, 2), eligible);
+    }
+}
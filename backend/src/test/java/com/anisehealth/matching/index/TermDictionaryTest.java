@@ -0,0 +1,31 @@
+package com.anisehealth.matching.index;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TermDictionaryTest {
+    private final TermDictionary dictionary = new TermDictionary();
+
+    @Test
+    void intern_AssignsDenseIdsIgnoringCase() {
+        int english = dictionary.intern("English");
+        int mandarin = dictionary.intern("Mandarin");
+
+        assertEquals(0, english);
+        assertEquals(1, mandarin);
+        assertEquals(english, dictionary.intern("ENGLISH"));
+        assertEquals(2, dictionary.size());
+        assertEquals("mandarin", dictionary.term(mandarin));
+    }
+
+    @Test
+    void lookup_DoesNotAssignIds() {
+        dictionary.intern("CBT");
+
+        assertEquals(0, dictionary.lookup("cbt"));
+        assertEquals(TermDictionary.UNKNOWN, dictionary.lookup("DBT"));
+        assertEquals(TermDictionary.UNKNOWN, dictionary.lookup(null));
+        assertEquals(1, dictionary.size());
+    }
+}
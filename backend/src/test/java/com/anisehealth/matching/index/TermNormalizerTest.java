@@ -0,0 +1,59 @@
+package com.anisehealth.matching.index;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TermNormalizerTest {
+    private final TermNormalizer normalizer = TermNormalizer.defaultInstance();
+
+    private static TermNormalizer load(String table) throws Exception {
+        return TermNormalizer.load(new ByteArrayInputStream(table.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void normalizeModality_MapsSynonymsAndAbbreviationsIgnoringCase() {
+        assertEquals("CBT", normalizer.normalizeModality(" Cognitive Behavioral Therapy (CBT)"));
+        assertEquals("DBT", normalizer.normalizeModality("dialectical-behavioral therapy"));
+        assertEquals("ACT", normalizer.normalizeModality("act"));
+        assertEquals("MBCT", normalizer.normalizeModality("Mindfulness Based Cognitive Therapy"));
+    }
+
+    @Test
+    void normalizeModality_OnlyMatchesAbbreviationsAsWholeTerms() {
+        assertEquals("Family Systems", normalizer.normalizeModality("Family Systems"));
+        assertEquals("Psychodynamic", normalizer.normalizeModality("Psychodynamic (insight-oriented) "));
+    }
+
+    @Test
+    void normalizeArea_PrefersTheEarliestRuleInTheTable() {
+        assertEquals("Anxiety", normalizer.normalizeArea("Relationship anxiety"));
+        assertEquals("Trauma-related stress", normalizer.normalizeArea("Post-Traumatic Stress Disorder (PTSD)"));
+        assertEquals("Grief", normalizer.normalizeArea(" Grief "));
+    }
+
+    @Test
+    void load_FollowsSuffixLinksBetweenOverlappingSynonyms() throws Exception {
+        var custom = load("""
+            # field,match,synonym,canonical
+            SPECIALIZATION_AREA,contains,abcd,Long
+            SPECIALIZATION_AREA,contains,bce,Overlap
+            SPECIALIZATION_AREA,contains,c,Short
+            """);
+
+        assertEquals("Long", custom.normalizeArea("xabcd"));
+        assertEquals("Overlap", custom.normalizeArea("abce"));
+        assertEquals("Short", custom.normalizeArea("abc"));
+        assertEquals("Somatic", custom.normalizeModality("Somatic (body-based)"));
+    }
+
+    @Test
+    void load_RejectsMalformedRules() {
+        assertThrows(IllegalArgumentException.class, () -> load("SPECIALIZATION_AREA,contains,Anxiety\n"));
+        assertThrows(IllegalArgumentException.class, () -> load("SPECIALIZATION_AREA,fuzzy,Anxiety,Anxiety\n"));
+        assertThrows(IllegalArgumentException.class, () -> load("COLOR,exact,Red,Red\n"));
+    }
+}
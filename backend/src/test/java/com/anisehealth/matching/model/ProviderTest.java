@@ -1,8 +1,12 @@
 package com.anisehealth.matching.model;
 
+import com.anisehealth.matching.index.TermDictionary;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class ProviderTest {
@@ -134,4 +138,103 @@ class ProviderTest {
         assertEquals(2, provider.getTreatmentModalities().size());
         assertEquals(2, provider.getSpecializationAreas().size());
     }
-} 
\ No newline at end of file
+
+    @Test
+    void encodeTerms_ShouldEncodeTermsAsSortedDistinctIds() {
+        provider.setLanguage("English, Mandarin, english");
+        provider.processRawFields();
+        var dictionary = new TermDictionary();
+        provider.encodeTerms(dictionary);
+
+        int[] expected = java.util.stream.IntStream.of(dictionary.lookup("english"), dictionary.lookup("mandarin"))
+            .sorted()
+            .toArray();
+        assertArrayEquals(expected, provider.getLanguageIds());
+        assertEquals(dictionary.lookup("male"), provider.getGenderId());
+    }
+
+    @Test
+    void processRawFields_ShouldEncodePaymentOptionsAsMasks() {
+        provider.setAcceptedPaymentMethods("Insurance, Self-pay");
+        provider.setAcceptedInsuranceProviders("Aetna, Unknown, Anthem");
+        provider.processRawFields();
+
+        assertTrue(provider.acceptsPaymentMethod(PatientRequest.PaymentMethod.SELF_PAY));
+        assertTrue(provider.acceptsInsuranceProvider(PatientRequest.InsuranceProvider.ANTHEM));
+        assertFalse(provider.acceptsInsuranceProvider(PatientRequest.InsuranceProvider.MAGELLAN));
+        assertEquals(List.of(PatientRequest.InsuranceProvider.AETNA, PatientRequest.InsuranceProvider.ANTHEM),
+            provider.getInsuranceProviders());
+    }
+
+    @Test
+    void acceptsPayment_WithoutListedOptions_AcceptsAny() {
+        provider.processRawFields();
+
+        assertTrue(provider.acceptsPaymentMethod(PatientRequest.PaymentMethod.INSURANCE));
+        assertTrue(provider.acceptsInsuranceProvider(PatientRequest.InsuranceProvider.MAGELLAN));
+        assertEquals(List.of(), provider.getPaymentMethods());
+    }
+
+    @Test
+    void acceptsPayment_WithOnlyUnknownOptions_AcceptsNone() {
+        provider.setAcceptedPaymentMethods("Barter");
+        provider.setAcceptedInsuranceProviders("Cigna, Aetan");
+        provider.processRawFields();
+
+        assertFalse(provider.acceptsPaymentMethod(PatientRequest.PaymentMethod.SELF_PAY));
+        assertFalse(provider.acceptsInsuranceProvider(PatientRequest.InsuranceProvider.AETNA));
+        assertFalse(provider.acceptsInsuranceProvider(PatientRequest.InsuranceProvider.MAGELLAN));
+        assertEquals(List.of(), provider.getInsuranceProviders());
+    }
+
+    @Test
+    void processRawFields_ShouldPrecomputeStaticScore() {
+        provider.setLanguage("English, Mandarin");
+        provider.setTreatmentModality("CBT");
+        provider.setAreasOfSpecialization("Anxiety, Depression, Worry");
+        provider.processRawFields();
+
+        assertEquals(3 * 2 + 6, provider.getStaticScore());
+    }
+
+    @Test
+    void setAvailableCapacity_ShouldRefreshStaticScore() {
+        provider.setLanguage("English");
+        provider.processRawFields();
+
+        provider.setAvailableCapacity(7);
+        assertEquals(7 * 2 + 1, provider.getStaticScore());
+
+        provider.setAvailableCapacity(null);
+        assertEquals(1, provider.getStaticScore());
+    }
+
+    @Test
+    void tryReserve_ShouldStopAtZeroUnderContention() throws Exception {
+        provider.setAvailableCapacity(50);
+        var reserved = new AtomicInteger();
+        var threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < 20; i++) {
+                    if (provider.tryReserve()) reserved.incrementAndGet();
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) thread.join();
+
+        assertEquals(50, reserved.get());
+        assertEquals(0, provider.getAvailableCapacity());
+        assertFalse(provider.tryReserve());
+    }
+
+    @Test
+    void release_ShouldNotExceedRosterCapacity() {
+        assertFalse(provider.release());
+        assertTrue(provider.tryReserve());
+        assertEquals(2, provider.getAvailableCapacity());
+        assertTrue(provider.release());
+        assertEquals(3, provider.getAvailableCapacity());
+    }
+}
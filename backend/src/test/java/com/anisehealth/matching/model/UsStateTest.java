@@ -0,0 +1,32 @@
+package com.anisehealth.matching.model;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsStateTest {
+
+    @Test
+    void fromString_AcceptsCodesAndNamesIgnoringCase() {
+        assertEquals(UsState.CA, UsState.fromString("CA"));
+        assertEquals(UsState.NY, UsState.fromString(" new york "));
+        assertEquals(UsState.DC, UsState.fromString("District of Columbia"));
+        assertNull(UsState.fromString(null));
+    }
+
+    @Test
+    void fromString_RejectsUnknownLocations() {
+        assertThrows(IllegalArgumentException.class, () -> UsState.fromString("A"));
+        assertThrows(IllegalArgumentException.class, () -> UsState.fromString("Los Angeles"));
+    }
+
+    @Test
+    void parseMask_SetsOneBitPerKnownState() {
+        long mask = UsState.parseMask("CA, NY, Atlantis,");
+
+        assertEquals(2, Long.bitCount(mask));
+        assertNotEquals(0, mask & (1L << UsState.CA.ordinal()));
+        assertNotEquals(0, mask & (1L << UsState.NY.ordinal()));
+        assertEquals(0L, UsState.parseMask(null));
+    }
+}
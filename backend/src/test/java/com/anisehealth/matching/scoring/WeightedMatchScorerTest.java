@@ -0,0 +1,127 @@
+package com.anisehealth.matching.scoring;
+
+import com.anisehealth.matching.config.MatchingProperties;
+import com.anisehealth.matching.index.MatchQuery;
+import com.anisehealth.matching.index.TermDictionary;
+import com.anisehealth.matching.model.PatientRequest;
+import com.anisehealth.matching.model.Provider;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WeightedMatchScorerTest {
+    private final TermDictionary dictionary = new TermDictionary();
+    private MatchingProperties properties;
+    private Provider provider;
+    private PatientRequest request;
+
+    @BeforeEach
+    void setUp() {
+        properties = new MatchingProperties();
+        var weights = properties.getWeights();
+        weights.setProfile(0);
+        weights.setAreaOverlap(0);
+        weights.setModalityOverlap(0);
+        weights.setPreferenceHit(0);
+        weights.setCapacity(0);
+        weights.setPaymentFit(0);
+
+        provider = new Provider();
+        provider.setGenderIdentity("Female");
+        provider.setAvailableCapacity(4);
+        provider.setLanguage("English,Korean");
+        provider.setTreatmentModality("CBT,DBT,ACT");
+        provider.setAreasOfSpecialization("Anxiety,Depression,Worry");
+        provider.setAcceptedPaymentMethods("Insurance");
+        provider.setAcceptedInsuranceProviders("Aetna");
+        provider.processRawFields();
+        provider.encodeTerms(dictionary);
+
+        request = new PatientRequest();
+        request.setAreasOfConcern(List.of("Anxiety", "Worry", "Grief"));
+        request.setTreatmentModality(List.of("DBT"));
+        request.setPaymentMethod(PatientRequest.PaymentMethod.INSURANCE);
+        request.setInsuranceProvider(PatientRequest.InsuranceProvider.AETNA);
+        var preferences = new PatientRequest.TherapistPreferences();
+        preferences.setPreferredGender("Female");
+        preferences.setPreferredLanguage("Korean");
+        preferences.setPreferredReligion("Any");
+        request.setTherapistPreferences(preferences);
+    }
+
+    private int score() {
+        return new WeightedMatchScorer(properties).score(provider, MatchQuery.of(request, dictionary));
+    }
+
+    @Test
+    void countsAreaAndModalityOverlap() {
+        properties.getWeights().setAreaOverlap(10);
+        properties.getWeights().setModalityOverlap(1);
+        assertEquals(2 * 10 + 1, score());
+    }
+
+    @Test
+    void countsExplicitPreferenceHits() {
+        properties.getWeights().setPreferenceHit(1);
+        assertEquals(2, score());
+    }
+
+    @Test
+    void scoresPaymentFitAndCapacity() {
+        properties.getWeights().setPaymentFit(7);
+        properties.getWeights().setCapacity(1);
+        assertEquals(7 + 4, score());
+
+        request.setInsuranceProvider(PatientRequest.InsuranceProvider.ANTHEM);
+        assertEquals(4, score());
+    }
+
+    @Test
+    void scoresPaymentFit_WhenProviderListsNoPaymentOptions() {
+        properties.getWeights().setPaymentFit(7);
+        provider.setAcceptedPaymentMethods(null);
+        provider.setAcceptedInsuranceProviders(null);
+        provider.processRawFields();
+
+        assertEquals(7, score());
+        request.setPaymentMethod(PatientRequest.PaymentMethod.SELF_PAY);
+        request.setInsuranceProvider(null);
+        assertEquals(7, score());
+    }
+
+    @Test
+    void appliesProfileWeightToStaticScore() {
+        properties.getWeights().setProfile(2);
+        assertEquals(2 * provider.getStaticScore(), score());
+    }
+
+    @Test
+    void breakdown_SumsToScore() {
+        properties.setWeights(new MatchingProperties.Weights());
+        var breakdown = new WeightedMatchScorer(properties).breakdown(provider, MatchQuery.of(request, dictionary));
+
+        assertEquals(10, breakdown.get("areaOverlap"));
+        assertEquals(5, breakdown.get("paymentFit"));
+        assertEquals(score(), breakdown.values().stream().mapToInt(Integer::intValue).sum());
+    }
+
+    @Test
+    void addsWeightedBioRelevanceRounded() {
+        properties.getWeights().setBioRelevance(3);
+        var scorer = new WeightedMatchScorer(properties);
+        var query = MatchQuery.of(request, dictionary);
+
+        assertEquals(5, scorer.score(provider, query, 1.6));
+        assertEquals(5, scorer.breakdown(provider, query, 1.6).get("bioRelevance"));
+        assertEquals(0, scorer.score(provider, query));
+    }
+
+    @Test
+    void overlap_CountsCommonIdsOfSortedArrays() {
+        assertEquals(2, WeightedMatchScorer.overlap(new int[] {1, 3, 5, 9}, new int[] {2, 3, 9}));
+        assertEquals(0, WeightedMatchScorer.overlap(new int[0], new int[] {1}));
+    }
+}
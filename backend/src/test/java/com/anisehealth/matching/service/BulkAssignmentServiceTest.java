@@ -0,0 +1,71 @@
+package com.anisehealth.matching.service;
+
+import com.anisehealth.matching.config.MatchingProperties;
+import com.anisehealth.matching.config.RosterProperties;
+import com.anisehealth.matching.model.BulkAssignment;
+import com.anisehealth.matching.model.PatientRequest;
+import com.anisehealth.matching.model.Provider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkAssignmentServiceTest {
+    private ProviderMatchingService matchingService;
+    private BulkAssignmentService assignmentService;
+
+    @BeforeEach
+    void setUp() {
+        matchingService = ProviderMatchingServiceTest.newService(new RosterProperties(), new SimpleMeterRegistry());
+        assignmentService = new BulkAssignmentService(matchingService, new MatchingProperties());
+
+        // Both therapists treat anxiety in CA; only Bo also treats depression
+        matchingService.loadProviders(List.of(
+            provider("Ada", "Kim", "Anxiety"),
+            provider("Bo", "Park", "Anxiety,Depression")));
+    }
+
+    private static Provider provider(String firstName, String lastName, String areas) {
+        var provider = new Provider();
+        provider.setFirstName(firstName);
+        provider.setLastName(lastName);
+        provider.setLocation("CA");
+        provider.setAvailableCapacity(1);
+        provider.setEthnicIdentity("Black");
+        provider.setGenderIdentity("Female");
+        provider.setLanguage("English");
+        provider.setTreatmentModality("CBT");
+        provider.setAreasOfSpecialization(areas);
+        provider.setBio("Bio");
+        provider.processRawFields();
+        return provider;
+    }
+
+    private static PatientRequest request(String... areas) {
+        var request = new PatientRequest();
+        request.setLocation("CA");
+        request.setAreasOfConcern(List.of(areas));
+        request.setTreatmentModality(List.of("CBT"));
+        request.setPaymentMethod(PatientRequest.PaymentMethod.SELF_PAY);
+        return request;
+    }
+
+    @Test
+    void assign_MaximizesTotalScoreWhereGreedyServesFirstComeFirst() {
+        List<PatientRequest> requests = List.of(request("Anxiety"), request("Depression"));
+
+        BulkAssignment greedy = assignmentService.assign(requests, BulkAssignment.Strategy.GREEDY);
+        BulkAssignment auction = assignmentService.assign(requests, BulkAssignment.Strategy.AUCTION);
+
+        assertEquals(1, greedy.getAssignedPatients(), "The first patient takes Bo, who is the only depression match");
+        assertEquals(2, auction.getAssignedPatients());
+        assertEquals("ada-kim", auction.getAssignments().get(0).getProviderId());
+        assertEquals("bo-park", auction.getAssignments().get(1).getProviderId());
+        assertTrue(auction.getTotalScore() > greedy.getTotalScore());
+        assertEquals(1, matchingService.getSnapshot().findProvider("bo-park").orElseThrow().getAvailableCapacity(),
+            "Assignments do not reserve slots");
+    }
+}
@@ -0,0 +1,118 @@
+package com.anisehealth.matching.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BulkAssignmentSolverTest {
+
+    @Test
+    void auction_GivesScarceProviderToThePatientWhoNeedsItMost() {
+        // Both prefer provider 0, but patient 1 has no good alternative
+        int[][] candidates = {{0, 1}, {0, 1}};
+        int[][] scores = {{10, 9}, {10, 1}};
+        int[] capacity = {1, 1};
+
+        assertArrayEquals(new int[]{0, 1}, BulkAssignmentSolver.greedy(candidates, capacity));
+        assertArrayEquals(new int[]{1, 0}, BulkAssignmentSolver.auction(candidates, scores, capacity));
+    }
+
+    @Test
+    void auction_LeavesPatientsUnassignedWhenSlotsRunOut() {
+        int[][] candidates = {{0}, {0}, {0}, {}};
+        int[][] scores = {{5}, {7}, {6}, {}};
+
+        int[] assignment = BulkAssignmentSolver.auction(candidates, scores, new int[]{2});
+
+        assertArrayEquals(new int[]{BulkAssignmentSolver.UNASSIGNED, 0, 0, BulkAssignmentSolver.UNASSIGNED}, assignment);
+    }
+
+    @Test
+    void auction_MatchesExhaustiveSearchOnSmallBatches() {
+        var random = new Random(17);
+        for (int round = 0; round < 200; round++) {
+            int patients = 1 + random.nextInt(7);
+            int providers = 1 + random.nextInt(4);
+            int[] capacity = new int[providers];
+            for (int provider = 0; provider < providers; provider++) {
+                capacity[provider] = random.nextInt(3);
+            }
+            int[][] candidates = new int[patients][];
+            int[][] scores = new int[patients][];
+            randomCandidates(random, providers, providers, candidates, scores);
+
+            int[] assignment = BulkAssignmentSolver.auction(candidates, scores, capacity);
+
+            assertWithinCapacity(assignment, capacity);
+            assertEquals(best(candidates, scores, capacity.clone(), 0), total(assignment, candidates, scores),
+                "round " + round);
+        }
+    }
+
+    @Test
+    void auction_ScoresAtLeastAsHighAsGreedyOnALargeBatch() {
+        var random = new Random(42);
+        int patients = 5_000;
+        int providers = 500;
+        int[] capacity = new int[providers];
+        for (int provider = 0; provider < providers; provider++) {
+            capacity[provider] = 1 + random.nextInt(8);
+        }
+        int[][] candidates = new int[patients][];
+        int[][] scores = new int[patients][];
+        randomCandidates(random, providers, 32, candidates, scores);
+
+        int[] greedy = BulkAssignmentSolver.greedy(candidates, capacity);
+        int[] auction = BulkAssignmentSolver.auction(candidates, scores, capacity);
+
+        assertWithinCapacity(auction, capacity);
+        long greedyTotal = total(greedy, candidates, scores);
+        long auctionTotal = total(auction, candidates, scores);
+        assertTrue(auctionTotal >= greedyTotal);
+    }
+
+    /** Gives each patient up to {@code perPatient} distinct providers, best first. */
+    private static void randomCandidates(Random random, int providers, int perPatient, int[][] candidates, int[][] scores) {
+        for (int patient = 0; patient < candidates.length; patient++) {
+            int[] ordinals = random.ints(0, providers).distinct().limit(random.nextInt(perPatient + 1)).toArray();
+            int[] patientScores = random.ints(ordinals.length, 1, 60).map(score -> -score).sorted().map(score -> -score).toArray();
+            candidates[patient] = ordinals;
+            scores[patient] = patientScores;
+        }
+    }
+
+    private static void assertWithinCapacity(int[] assignment, int[] capacity) {
+        int[] used = new int[capacity.length];
+        for (int provider : assignment) {
+            if (provider != BulkAssignmentSolver.UNASSIGNED) used[provider]++;
+        }
+        for (int provider = 0; provider < capacity.length; provider++) {
+            assertTrue(used[provider] <= capacity[provider], "provider " + provider + " is oversubscribed");
+        }
+    }
+
+    private static long total(int[] assignment, int[][] candidates, int[][] scores) {
+        long total = 0;
+        for (int patient = 0; patient < assignment.length; patient++) {
+            for (int k = 0; k < candidates[patient].length; k++) {
+                if (candidates[patient][k] == assignment[patient]) total += scores[patient][k];
+            }
+        }
+        return total;
+    }
+
+    private static long best(int[][] candidates, int[][] scores, int[] left, int patient) {
+        if (patient == candidates.length) return 0;
+        long best = best(candidates, scores, left, patient + 1);
+        for (int k = 0; k < candidates[patient].length; k++) {
+            int provider = candidates[patient][k];
+            if (left[provider] == 0) continue;
+            left[provider]--;
+            best = Math.max(best, scores[patient][k] + best(candidates, scores, left, patient + 1));
+            left[provider]++;
+        }
+        return best;
+    }
+}
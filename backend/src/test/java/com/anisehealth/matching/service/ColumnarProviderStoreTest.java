@@ -0,0 +1,102 @@
+package com.anisehealth.matching.service;
+
+import com.anisehealth.matching.index.TermDictionary;
+import com.anisehealth.matching.model.PatientRequest;
+import com.anisehealth.matching.model.Provider;
+import com.anisehealth.matching.model.ProviderProfile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarProviderStoreTest {
+    private Provider provider;
+    private Provider sparse;
+    private ColumnarProviderStore store;
+
+    @BeforeEach
+    void setUp() {
+        provider = new Provider();
+        provider.setId("zoe-muller");
+        provider.setFirstName("Zoë");
+        provider.setLastName("Müller");
+        provider.setEthnicIdentity("White");
+        provider.setGenderIdentity("Female");
+        provider.setAvailableCapacity(2);
+        provider.setLanguage("English, Deutsch");
+        provider.setLocation("NY");
+        provider.setBio("Works with anxiety — and with grief.");
+        provider.setTreatmentModality("CBT, Psychodynamic (insight-oriented)");
+        provider.setAreasOfSpecialization("Anxiety, Grief");
+        provider.setAcceptedPaymentMethods("SELF_PAY");
+        provider.processRawFields();
+
+        sparse = new Provider();
+        sparse.setId("sparse");
+        sparse.processRawFields();
+        var dictionary = new TermDictionary();
+        provider.encodeTerms(dictionary);
+        sparse.encodeTerms(dictionary);
+
+        store = ColumnarProviderStore.of(List.of(provider, sparse));
+    }
+
+    @Test
+    void provider_MaterializesEqualProvider() {
+        assertEquals(provider, store.provider(0));
+        assertEquals(provider.getBio(), store.provider(0).getBio());
+        assertEquals(sparse, store.provider(1));
+        assertNull(store.provider(1).getAvailableCapacity());
+        assertEquals(1, store.ordinalOf("sparse"));
+        assertEquals(ProviderStore.NOT_FOUND, store.ordinalOf("nobody"));
+    }
+
+    @Test
+    void profiles_ExposeMatchFieldsWithoutMaterializing() {
+        var profiles = store.profiles();
+        ProviderProfile profile = profiles.apply(0);
+
+        assertEquals(provider.getStaticScore(), profile.getStaticScore());
+        assertArrayEquals(provider.getSpecializationAreaIds(), profile.getSpecializationAreaIds());
+        assertEquals(provider.getGenderId(), profile.getGenderId());
+        assertTrue(profile.acceptsPaymentMethod(PatientRequest.PaymentMethod.SELF_PAY));
+        assertFalse(profile.acceptsPaymentMethod(PatientRequest.PaymentMethod.INSURANCE));
+        assertNull(profiles.apply(1).getAvailableCapacity());
+    }
+
+    @Test
+    void tryReserve_TracksOpenSlotsInTheColumn() {
+        assertTrue(store.tryReserve(0));
+        assertTrue(store.tryReserve(0));
+        assertFalse(store.tryReserve(0));
+        assertEquals(0, store.availableCapacity(0));
+        assertEquals(0, store.provider(0).getAvailableCapacity());
+        assertEquals(provider.getStaticScore() - 4, store.profiles().apply(0).getStaticScore());
+
+        assertTrue(store.release(0));
+        assertEquals(1, store.reservedSlots(0));
+        store.restoreReservedSlots(0, 0);
+        assertFalse(store.release(0));
+        assertFalse(store.tryReserve(1));
+    }
+
+    @Test
+    void freeCapacity_FollowsReservationsAndRestores() {
+        assertEquals(2, store.freeCapacity());
+
+        store.tryReserve(0);
+        store.tryReserve(0);
+        store.tryReserve(0);
+        assertEquals(0, store.freeCapacity());
+
+        store.release(0);
+        store.release(0);
+        store.release(0);
+        assertEquals(2, store.freeCapacity());
+
+        store.restoreReservedSlots(0, 1);
+        assertEquals(1, store.freeCapacity());
+    }
+}
@@ -0,0 +1,117 @@
+package com.anisehealth.matching.service;
+
+import com.anisehealth.matching.config.MatchingProperties;
+import com.anisehealth.matching.index.MatchQuery;
+import com.anisehealth.matching.model.PatientRequest;
+import com.anisehealth.matching.model.Provider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MatchResultCacheTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<Provider> result = List.of(new Provider());
+    private MatchResultCache cache;
+    private RosterSnapshot roster;
+
+    @BeforeEach
+    void setUp() {
+        var properties = new MatchingProperties();
+        properties.getCache().setMaxEntries(2);
+        cache = new MatchResultCache(properties, registry);
+        cache.bindTo(registry);
+        roster = RosterSnapshot.builder()
+            .addAll(List.of(provider("Ada", "CA"), provider("Bo", "NY")))
+            .build(1);
+        cache.rosterChanged(roster);
+    }
+
+    private static Provider provider(String firstName, String location) {
+        var provider = new Provider();
+        provider.setFirstName(firstName);
+        provider.setLastName("Kim");
+        provider.setLocation(location);
+        provider.setAvailableCapacity(2);
+        provider.setTreatmentModality("CBT");
+        provider.setAreasOfSpecialization("Anxiety");
+        provider.processRawFields();
+        return provider;
+    }
+
+    private MatchQuery query(String location) {
+        var request = new PatientRequest();
+        request.setLocation(location);
+        request.setAreasOfConcern(List.of("Anxiety"));
+        request.setTreatmentModality(List.of("CBT"));
+        return MatchQuery.of(request, roster.getDictionary());
+    }
+
+    @Test
+    void get_ReturnsResultOnlyForSameRosterVersion() {
+        cache.put(query("CA"), 3, 1, cache.clock(), new int[] {0}, result);
+
+        assertEquals(result, cache.get(query("California"), 3, 1));
+        assertNull(cache.get(query("CA"), 5, 1));
+        assertNull(cache.get(query("CA"), 3, 2));
+        assertNull(cache.get(query("CA"), 3, 1), "A stale entry is dropped");
+        assertEquals(1.0, registry.get("provider.match.cache.requests").tag("result", "hit").counter().count());
+        assertEquals(3.0, registry.get("provider.match.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void invalidateReturning_DropsOnlyResultsIncludingProvider() {
+        cache.put(query("CA"), 3, 1, cache.clock(), new int[] {0}, result);
+        cache.put(query("NY"), 3, 1, cache.clock(), new int[] {1}, result);
+
+        cache.invalidateReturning(roster, 1);
+
+        assertNotNull(cache.get(query("CA"), 3, 1));
+        assertNull(cache.get(query("NY"), 3, 1));
+    }
+
+    @Test
+    void invalidateAdmitting_DropsResultsWhoseQueryProviderPasses() {
+        cache.put(query("CA"), 3, 1, cache.clock(), new int[0], List.of());
+        cache.put(query("NY"), 3, 1, cache.clock(), new int[] {1}, result);
+
+        cache.invalidateAdmitting(roster, 0);
+
+        assertNull(cache.get(query("CA"), 3, 1), "Ada practices in CA, so her release may change that result");
+        assertNotNull(cache.get(query("NY"), 3, 1));
+    }
+
+    @Test
+    void put_WhenCapacityChangedWhileComputing_DoesNotCache() {
+        long changes = cache.clock();
+        cache.invalidateReturning(roster, 0);
+
+        cache.put(query("CA"), 3, 1, changes, new int[] {0}, result);
+
+        assertNull(cache.get(query("CA"), 3, 1));
+    }
+
+    @Test
+    void put_KeepsAtMostMaxEntries() {
+        cache.put(query("CA"), 3, 1, cache.clock(), new int[] {0}, result);
+        cache.put(query("NY"), 3, 1, cache.clock(), new int[] {1}, result);
+        cache.put(query("WA"), 3, 1, cache.clock(), new int[0], List.of());
+
+        assertEquals(2, cache.size());
+        assertEquals(2.0, registry.get("provider.match.cache.size").gauge().value());
+    }
+
+    @Test
+    void withZeroMaxEntries_CachesNothing() {
+        var properties = new MatchingProperties();
+        properties.getCache().setMaxEntries(0);
+        cache = new MatchResultCache(properties, new SimpleMeterRegistry());
+
+        cache.put(query("CA"), 3, 1, cache.clock(), new int[] {0}, result);
+        assertNull(cache.get(query("CA"), 3, 1));
+        assertEquals(0, cache.size());
+    }
+}
@@ -1,24 +1,44 @@
 package com.anisehealth.matching.service;
 
+import com.anisehealth.matching.config.MatchingProperties;
+import com.anisehealth.matching.config.RosterProperties;
+import com.anisehealth.matching.index.MatchPlan;
+import com.anisehealth.matching.index.TermDictionary;
+import com.anisehealth.matching.model.BatchMatchResult;
 import com.anisehealth.matching.model.PatientRequest;
 import com.anisehealth.matching.model.Provider;
+import com.anisehealth.matching.scoring.WeightedMatchScorer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
-import org.springframework.test.util.ReflectionTestUtils;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class ProviderMatchingServiceTest {
     private ProviderMatchingService service;
+    private SimpleMeterRegistry registry;
     private Provider provider;
     private PatientRequest request;
 
     @BeforeEach
     void setUp() {
-        service = new ProviderMatchingService();
+        var rosterProperties = new RosterProperties();
+        registry = new SimpleMeterRegistry();
+        service = newService(rosterProperties, registry);
         
         // Set up a basic provider with all required fields
         provider = new Provider();
@@ -71,7 +91,7 @@ class ProviderMatchingServiceTest {
         request.setTherapistPreferences(preferences);
 
         // Initialize service with our test provider
-        ReflectionTestUtils.setField(service, "providers", List.of(provider));
+        service.loadProviders(List.of(provider));
     }
 
     @Test
@@ -111,6 +131,14 @@ class ProviderMatchingServiceTest {
         assertEquals(provider, matches.get(0));
     }
 
+    @Test
+    void whenRequestUsesSynonyms_normalizesThemLikeTheRoster() {
+        request.setAreasOfConcern(List.of("Generalized anxiety"));
+        request.setTreatmentModality(List.of("Dialectical Behavioral Therapy"));
+        List<Provider> matches = service.findMatches(request);
+        assertEquals(List.of(provider), matches);
+    }
+
     @Test
     void whenLanguagePreferenceMatches_returnsProvider() {
         request.getTherapistPreferences().setPreferredLanguage("Mandarin");
@@ -121,4 +149,542 @@ class ProviderMatchingServiceTest {
         assertTrue(!matches.isEmpty(), "Should find matches when language preference matches");
         assertEquals(provider, matches.get(0));
     }
-} 
\ No newline at end of file
+
+    @Test
+    void whenGenderPreferenceDoesNotMatch_returnsNoProvider() {
+        request.getTherapistPreferences().setPreferredGender("Female");
+        List<Provider> matches = service.findMatches(request);
+        assertTrue(matches.isEmpty(), "Should not find matches when gender preference doesn't match");
+    }
+
+    @Test
+    void whenPreferencesDifferInCase_returnsProvider() {
+        request.getTherapistPreferences().setPreferredReligion("buddhist");
+        request.setAreasOfConcern(List.of("ANXIETY"));
+        List<Provider> matches = service.findMatches(request);
+        assertEquals(List.of(provider), matches);
+    }
+
+    @Test
+    void whenNoTreatmentModalityRequested_returnsNoProvider() {
+        request.setTreatmentModality(List.of());
+        List<Provider> matches = service.findMatches(request);
+        assertTrue(matches.isEmpty(), "Should not find matches without a requested modality");
+    }
+
+    private Provider copyOf(Provider source, String firstName, String lastName, int capacity) {
+        Provider copy = new Provider();
+        copy.setFirstName(firstName);
+        copy.setLastName(lastName);
+        copy.setLocation(source.getLocation());
+        copy.setAvailableCapacity(capacity);
+        copy.setEthnicIdentity(source.getEthnicIdentity());
+        copy.setGenderIdentity(source.getGenderIdentity());
+        copy.setLanguage(source.getLanguage());
+        copy.setTreatmentModality(source.getTreatmentModality());
+        copy.setAreasOfSpecialization(source.getAreasOfSpecialization());
+        copy.setReligiousBackground(source.getReligiousBackground());
+        copy.setBio(source.getBio());
+        copy.setAcceptedPaymentMethods(source.getAcceptedPaymentMethods());
+        copy.setAcceptedInsuranceProviders(source.getAcceptedInsuranceProviders());
+        copy.processRawFields();
+        return copy;
+    }
+
+    /** A service with default matching settings, loading from {@code rosterProperties}, metered into {@code registry}. */
+    static ProviderMatchingService newService(RosterProperties rosterProperties, MeterRegistry registry) {
+        return new ProviderMatchingService(
+            new WeightedMatchScorer(new MatchingProperties()),
+            new RosterLoader(rosterProperties, new DefaultResourceLoader()),
+            rosterProperties,
+            new MatchResultCache(new MatchingProperties(), registry),
+            new MatchMetrics(new MatchingProperties(), registry));
+    }
+
+    private static Provider withId(Provider provider, String id) {
+        provider.setId(id);
+        return provider;
+    }
+
+    @Test
+    void whenMoreCandidatesThanRequested_returnsBestScoresFirst() {
+        Provider low = copyOf(provider, "Ann", "Low", 1);
+        Provider high = copyOf(provider, "Hal", "High", 9);
+        Provider mid = copyOf(provider, "Mia", "Mid", 4);
+        service.loadProviders(List.of(low, provider, high, mid));
+
+        assertEquals(List.of(high, provider, mid), service.findMatches(request));
+
+        request.setMaxResults(1);
+        assertEquals(List.of(high), service.findMatches(request));
+    }
+
+    @Test
+    void whenScoresTie_ordersByNameNotRosterOrder() {
+        Provider zed = copyOf(provider, "Zed", "Young", 5);
+        Provider amy = copyOf(provider, "Amy", "Adams", 5);
+        service.loadProviders(List.of(zed, provider, amy));
+
+        assertEquals(List.of(amy, provider, zed), service.findMatches(request));
+    }
+
+    @Test
+    void whenProviderCoversMoreRequestedAreas_ranksItHigher() {
+        Provider narrow = copyOf(provider, "Nat", "Narrow", 5);
+        narrow.setAreasOfSpecialization("Anxiety,Grief,Sleep problems");
+        narrow.processRawFields();
+        request.setAreasOfConcern(List.of("Anxiety", "Depression"));
+        service.loadProviders(List.of(narrow, provider));
+
+        assertEquals(List.of(provider, narrow), service.findMatches(request));
+    }
+
+    @Test
+    void whenInsurerIsNotAccepted_returnsNoProvider() {
+        request.setInsuranceProvider(PatientRequest.InsuranceProvider.ANTHEM);
+        List<Provider> matches = service.findMatches(request);
+        assertTrue(matches.isEmpty(), "Should not find matches when the insurer isn't accepted");
+    }
+
+    @Test
+    void whenPaymentMethodIsNotAccepted_returnsNoProvider() {
+        provider.setAcceptedPaymentMethods("Insurance");
+        provider.processRawFields();
+        service.loadProviders(List.of(provider));
+        request.setPaymentMethod(PatientRequest.PaymentMethod.SELF_PAY);
+        request.setInsuranceProvider(null);
+
+        assertTrue(service.findMatches(request).isEmpty(), "Should not find matches when self-pay isn't accepted");
+    }
+
+    @Test
+    void whenProviderListsNoPaymentOptions_treatsThemAsAcceptingAny() {
+        Provider unlisted = copyOf(provider, "Una", "Listed", 5);
+        unlisted.setAcceptedPaymentMethods(null);
+        unlisted.setAcceptedInsuranceProviders(null);
+        unlisted.processRawFields();
+        service.loadProviders(List.of(provider, unlisted));
+        request.setInsuranceProvider(PatientRequest.InsuranceProvider.ANTHEM);
+
+        assertEquals(List.of(unlisted), service.findMatches(request));
+    }
+
+    @Test
+    void whenLocationIsOnlyASubstring_returnsNoProvider() {
+        request.setLocation("New");
+        assertTrue(service.findMatches(request).isEmpty(), "Partial location names should not match");
+    }
+
+    @Test
+    void whenProviderPracticesInSeveralStates_matchesEachStateCode() {
+        provider.setLocation("CA, NY");
+        provider.processRawFields();
+        service.loadProviders(List.of(provider));
+
+        request.setLocation("ny");
+        assertEquals(List.of(provider), service.findMatches(request));
+        request.setLocation("California");
+        assertEquals(List.of(provider), service.findMatches(request));
+        request.setLocation("WA");
+        assertTrue(service.findMatches(request).isEmpty());
+    }
+
+    @Test
+    void reserve_TakesSlotsUntilProviderIsFull() {
+        provider.setAvailableCapacity(1);
+
+        var reservation = service.reserve("john-doe").orElseThrow();
+        assertTrue(reservation.isApplied());
+        assertEquals(0, reservation.getAvailableCapacity());
+        assertTrue(service.findMatches(request).isEmpty(), "A full provider should no longer match");
+        assertFalse(service.reserve("john-doe").orElseThrow().isApplied());
+
+        assertTrue(service.release("john-doe").orElseThrow().isApplied());
+        assertEquals(List.of(provider), service.findMatches(request));
+        assertTrue(service.reserve("unknown").isEmpty());
+    }
+
+    @Test
+    void reserve_WithBlankCapacity_IsRejectedWithoutCapacity() {
+        provider.setAvailableCapacity(null);
+
+        var reservation = service.reserve("john-doe").orElseThrow();
+        assertFalse(reservation.isApplied());
+        assertNull(reservation.getAvailableCapacity());
+        assertNull(service.release("john-doe").orElseThrow().getAvailableCapacity());
+    }
+
+    @Test
+    void whenCapacityFalls_rankingShiftsToProvidersWithMoreSlots() {
+        Provider other = copyOf(provider, "Jane", "Roe", 4);
+        service.loadProviders(List.of(provider, other));
+        assertEquals(provider, service.findMatches(request).get(0));
+
+        service.reserve("john-doe");
+        service.reserve("john-doe");
+        assertEquals(other, service.findMatches(request).get(0));
+    }
+
+    @Test
+    void withColumnarStorage_matchesAndReservesLikeObjectStorage() {
+        var rosterProperties = new RosterProperties();
+        rosterProperties.setStorage(RosterProperties.Storage.COLUMNAR);
+        service = newService(rosterProperties, new SimpleMeterRegistry());
+        Provider other = copyOf(provider, "Jane", "Roe", 4);
+        service.loadProviders(List.of(provider, other));
+
+        assertEquals(List.of(provider, other), service.findMatches(request));
+        assertNotSame(provider, service.findMatches(request).get(0), "Columnar rows are materialized per request");
+
+        service.reserve("john-doe");
+        service.reserve("john-doe");
+        List<Provider> matches = service.findMatches(request);
+        assertEquals("jane-roe", matches.get(0).getId());
+        assertEquals(3, matches.get(1).getAvailableCapacity());
+        assertEquals(2, matches.get(1).getReservedSlots());
+    }
+
+    @Test
+    void whenRequestsAreEquivalent_servesSecondFromCacheUntilCapacityChanges() {
+        service.findMatches(request);
+        request.setAreasOfConcern(List.of("ANXIETY"));
+        request.getTherapistPreferences().setPreferredGender(null);
+
+        assertEquals(List.of(provider), service.findMatches(request));
+        assertEquals(1.0, registry.get("provider.match.cache.requests").tag("result", "hit").counter().count());
+
+        service.reserve("john-doe");
+        assertEquals(List.of(provider), service.findMatches(request));
+        assertEquals(2.0, registry.get("provider.match.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void whenCapacityChangesElsewhere_keepsServingFromCache() {
+        Provider outOfArea = copyOf(provider, "Jane", "Roe", 4);
+        outOfArea.setLocation("WA");
+        outOfArea.processRawFields();
+        service.loadProviders(List.of(provider, outOfArea));
+        service.findMatches(request);
+
+        service.reserve("jane-roe");
+        service.release("jane-roe");
+        assertEquals(List.of(provider), service.findMatches(request));
+        assertEquals(1.0, registry.get("provider.match.cache.requests").tag("result", "hit").counter().count());
+
+        service.reserve("john-doe");
+        service.release("john-doe");
+        assertEquals(List.of(provider), service.findMatches(request));
+        assertEquals(2.0, registry.get("provider.match.cache.requests").tag("result", "miss").counter().count());
+    }
+
+    @Test
+    void findMatches_ReturnsUnmodifiableListOnMissAndHit() {
+        List<Provider> miss = service.findMatches(request);
+        List<Provider> hit = service.findMatches(request);
+
+        assertEquals(1.0, registry.get("provider.match.cache.requests").tag("result", "hit").counter().count());
+        assertThrows(UnsupportedOperationException.class, () -> miss.add(provider));
+        assertThrows(UnsupportedOperationException.class, () -> hit.add(provider));
+        assertEquals(miss.getClass(), hit.getClass());
+    }
+
+    @Test
+    void findMatchesBatch_ReturnsResultsInRequestOrder() {
+        var outOfArea = new PatientRequest();
+        outOfArea.setLocation("WA");
+        outOfArea.setAreasOfConcern(List.of("Anxiety"));
+        outOfArea.setTreatmentModality(List.of("CBT"));
+        outOfArea.setPaymentMethod(PatientRequest.PaymentMethod.SELF_PAY);
+
+        List<BatchMatchResult> results = service.findMatchesBatch(List.of(request, outOfArea, request), false).toList();
+
+        assertEquals(List.of(0, 1, 2), results.stream().map(BatchMatchResult::getIndex).toList());
+        assertEquals(List.of(provider), results.get(0).getMatches());
+        assertTrue(results.get(1).getMatches().isEmpty());
+        assertEquals(List.of(provider), results.get(2).getMatches());
+        assertNull(results.get(0).getAssignedProviderId());
+    }
+
+    @Test
+    void findMatchesBatch_WhenCapacityAware_DoesNotAssignASlotTwice() {
+        Provider other = copyOf(provider, "Jane", "Roe", 1);
+        provider.setAvailableCapacity(1);
+        service.loadProviders(List.of(provider, other));
+
+        List<BatchMatchResult> results = service.findMatchesBatch(List.of(request, request, request), true).toList();
+
+        assertEquals("john-doe", results.get(0).getAssignedProviderId());
+        assertEquals("jane-roe", results.get(1).getAssignedProviderId());
+        assertEquals(List.of(other), results.get(1).getMatches());
+        assertTrue(results.get(2).getMatches().isEmpty());
+        assertNull(results.get(2).getAssignedProviderId());
+        assertEquals(1, provider.getAvailableCapacity(), "A batch does not reserve live capacity");
+    }
+
+    @Test
+    void findMatches_RecordsCandidatesInAndOutOfEachStage() {
+        Provider elsewhere = copyOf(provider, "Jane", "Roe", 4);
+        elsewhere.setLocation("CA");
+        elsewhere.processRawFields();
+        service.loadProviders(List.of(provider, elsewhere));
+
+        service.findMatches(request);
+
+        assertEquals(2.0, candidates("location", "in"));
+        assertEquals(1.0, candidates("location", "out"));
+        assertEquals(1.0, candidates("ranking", "out"));
+        assertEquals(1, registry.get("provider.match.stage").tag("stage", "areas").timer().count());
+    }
+
+    @Test
+    void plan_StartsWithTheMostSelectiveFilter() {
+        Provider elsewhere = copyOf(provider, "Jane", "Roe", 4);
+        elsewhere.setLocation("CA");
+        elsewhere.processRawFields();
+        service.loadProviders(List.of(provider, elsewhere));
+
+        var plan = service.plan(request);
+
+        assertEquals(MatchPlan.Predicate.LOCATION, plan.getSteps().get(0).getPredicate());
+        assertEquals(1, plan.getSteps().get(0).getEstimatedCandidates());
+        service.findMatches(request);
+        assertEquals(1.0, candidates("areas", "in"));
+    }
+
+    @Test
+    void explain_ReportsEachStageWithExcludedProvidersAndScoreBreakdown() {
+        Provider elsewhere = copyOf(provider, "Jane", "Roe", 4);
+        elsewhere.setLocation("CA");
+        elsewhere.processRawFields();
+        Provider full = copyOf(provider, "Ann", "Lee", 1);
+        service.loadProviders(List.of(provider, elsewhere, full));
+        service.reserve("ann-lee");
+
+        var explanation = service.explain(request);
+
+        assertEquals(3, explanation.getRosterSize());
+        var location = explanation.getStages().get(0);
+        assertEquals("location", location.getName());
+        assertEquals("New York", location.getRequested());
+        assertEquals(3, location.getCandidatesIn());
+        assertEquals(2, location.getCandidatesOut());
+        assertEquals("jane-roe", location.getExcluded().get(0).getProviderId());
+        assertEquals("CA", location.getExcluded().get(0).getProviderValue());
+
+        var capacity = explanation.getStages().get(explanation.getStages().size() - 1);
+        assertEquals("capacity", capacity.getName());
+        assertEquals(1, capacity.getCandidatesOut());
+        assertEquals("ann-lee", capacity.getExcluded().get(0).getProviderId());
+
+        var match = explanation.getMatches().get(0);
+        assertEquals("john-doe", match.getProviderId());
+        assertEquals(match.getScore(), match.getBreakdown().values().stream().mapToInt(Integer::intValue).sum());
+        assertEquals(service.findMatches(request).get(0).getId(), match.getProviderId());
+    }
+
+    @Test
+    void explain_StopsAtTheStageThatLeftNoCandidates() {
+        request.getTherapistPreferences().setPreferredReligion("Catholic");
+
+        var explanation = service.explain(request);
+
+        var last = explanation.getStages().get(explanation.getStages().size() - 1);
+        assertEquals("religion", last.getName());
+        assertEquals(0, last.getCandidatesOut());
+        assertEquals("Buddhist", last.getExcluded().get(0).getProviderValue());
+        assertTrue(explanation.getMatches().isEmpty());
+    }
+
+    @Test
+    void findMatchesRelaxed_FillsWithLooserMatchesLabelledByWhatTheyMiss() {
+        Provider catholic = copyOf(provider, "Ann", "Lee", 4);
+        catholic.setReligiousBackground("Catholic");
+        catholic.processRawFields();
+        Provider female = copyOf(provider, "Jane", "Roe", 4);
+        female.setGenderIdentity("Female");
+        female.setReligiousBackground("Catholic");
+        female.processRawFields();
+        Provider elsewhere = copyOf(provider, "Max", "Moe", 4);
+        elsewhere.setLocation("CA");
+        elsewhere.processRawFields();
+        service.loadProviders(List.of(provider, catholic, female, elsewhere));
+        request.getTherapistPreferences().setPreferredGender("Male");
+        request.getTherapistPreferences().setPreferredReligion("Buddhist");
+        request.setMaxResults(5);
+
+        var matches = service.findMatchesRelaxed(request);
+
+        assertEquals(List.of("john-doe", "ann-lee", "jane-roe"),
+            matches.stream().map(match -> match.getProvider().getId()).toList());
+        assertEquals(List.of(), matches.get(0).getRelaxedConstraints());
+        assertEquals(List.of("religion"), matches.get(1).getRelaxedConstraints());
+        assertEquals(List.of("religion", "gender"), matches.get(2).getRelaxedConstraints());
+    }
+
+    @Test
+    void findMatchesRelaxed_StopsOnceEnoughStrictMatchesAreFound() {
+        Provider catholic = copyOf(provider, "Ann", "Lee", 4);
+        catholic.setReligiousBackground("Catholic");
+        catholic.processRawFields();
+        service.loadProviders(List.of(provider, catholic));
+        request.getTherapistPreferences().setPreferredReligion("Buddhist");
+        request.setMaxResults(1);
+
+        var matches = service.findMatchesRelaxed(request);
+
+        assertEquals(1, matches.size());
+        assertEquals("john-doe", matches.get(0).getProvider().getId());
+        assertTrue(matches.get(0).getRelaxedConstraints().isEmpty());
+    }
+
+    @Test
+    void findMatches_WithBioQuery_RanksRelevantBiosFirst() {
+        Provider panic = copyOf(provider, "Ann", "Lee", 5);
+        panic.setBio("Specializes in panic attacks and phobias");
+        service.loadProviders(List.of(provider, panic));
+        request.setMaxResults(2);
+
+        assertEquals("john-doe", service.findMatches(request).get(0).getId());
+        request.setBioQuery("panic attack");
+        assertEquals("ann-lee", service.findMatches(request).get(0).getId());
+        assertTrue(service.explain(request).getMatches().get(0).getBreakdown().get("bioRelevance") > 0);
+    }
+
+    @Test
+    void searchBios_RanksProvidersByRelevanceIgnoringFilters() {
+        Provider panic = copyOf(provider, "Ann", "Lee", 5);
+        panic.setBio("Panic attacks, panic disorder");
+        panic.setLocation("CA");
+        Provider some = copyOf(provider, "Jane", "Roe", 5);
+        some.setBio("Grief and panic");
+        service.loadProviders(List.of(provider, panic, some));
+
+        var results = service.searchBios("Panic", 5);
+
+        assertEquals(List.of("ann-lee", "jane-roe"), results.stream().map(result -> result.getProvider().getId()).toList());
+        assertTrue(results.get(0).getRelevance() > results.get(1).getRelevance());
+        assertTrue(service.searchBios("unrelated words", 5).isEmpty());
+    }
+
+    @Test
+    void rosterGauges_FollowTheCurrentSnapshot() {
+        service.init();
+        service.loadProviders(List.of(provider));
+        service.reserve("john-doe");
+
+        assertEquals(1.0, registry.get("provider.roster.size").gauge().value());
+        assertEquals(4.0, registry.get("provider.roster.free.capacity").gauge().value());
+    }
+
+    private double candidates(String stage, String side) {
+        return registry.get("provider.match.filter.candidates").tag("stage", stage).tag("side", side).counter().count();
+    }
+
+    @Test
+    void loadProviders_BuildsFreshTermDictionaryPerRoster() {
+        Provider retired = copyOf(provider, "Ann", "Old", 2);
+        retired.setTreatmentModality("Hypnotherapy");
+        retired.processRawFields();
+        service.loadProviders(List.of(retired));
+        RosterSnapshot previous = service.getSnapshot();
+
+        service.loadProviders(List.of(copyOf(provider, "John", "Doe", 2)));
+
+        assertNotEquals(TermDictionary.UNKNOWN, previous.getDictionary().lookup("Hypnotherapy"));
+        assertEquals(TermDictionary.UNKNOWN, service.getSnapshot().getDictionary().lookup("Hypnotherapy"),
+            "Terms no provider carries any more are not kept by the next roster");
+    }
+
+    @Test
+    void loadProviders_AssignsUniqueIdsFromNames() {
+        Provider twin = copyOf(provider, "John", "Doe", 1);
+        service.loadProviders(List.of(provider, twin));
+
+        assertEquals("john-doe", provider.getId());
+        assertEquals("john-doe-2", twin.getId());
+    }
+
+    @Test
+    void loadProviders_DropsReservationsHeldUnderNameDerivedIds() {
+        service.loadProviders(List.of(copyOf(provider, "John", "Doe", 3), copyOf(provider, "John", "Doe", 5)));
+        service.reserve("john-doe");
+
+        // The first John Doe leaves, so the second one inherits the id "john-doe"
+        service.loadProviders(List.of(copyOf(provider, "John", "Doe", 5)));
+
+        assertEquals(5, service.getSnapshot().findProvider("john-doe").orElseThrow().getAvailableCapacity(),
+            "The first John Doe's reservation must not pass to the second");
+    }
+
+    @Test
+    void loadProviders_KeepsReservationsHeldUnderRosterIds() {
+        service.loadProviders(List.of(withId(copyOf(provider, "John", "Doe", 3), "p-1"),
+            withId(copyOf(provider, "John", "Doe", 3), "p-2")));
+        service.reserve("p-2");
+
+        service.loadProviders(List.of(withId(copyOf(provider, "John", "Doe", 3), "p-2")));
+
+        assertEquals(2, service.getSnapshot().findProvider("p-2").orElseThrow().getAvailableCapacity());
+    }
+
+    @Test
+    void reservationsDuringReloads_AreNeitherLostNorDoubled() throws Exception {
+        int capacity = 20_000;
+        service.loadProviders(List.of(withId(copyOf(provider, "John", "Doe", capacity), "p-1")));
+        int threads = 4;
+        int perThread = 2_000;
+        var applied = new AtomicInteger();
+        var done = new CountDownLatch(threads);
+        var pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    boolean reserve = i % 4 != 3;
+                    var response = reserve ? service.reserve("p-1") : service.release("p-1");
+                    if (response.orElseThrow().isApplied()) applied.addAndGet(reserve ? 1 : -1);
+                }
+                done.countDown();
+            });
+        }
+        while (done.getCount() > 0) {
+            service.loadProviders(List.of(withId(copyOf(provider, "John", "Doe", capacity), "p-1")));
+        }
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+
+        int open = service.getSnapshot().findProvider("p-1").orElseThrow().getAvailableCapacity();
+        assertEquals(capacity - applied.get(), open);
+    }
+
+    @Test
+    void refreshRoster_SwapsInChangedFileAndKeepsReservations(@TempDir Path tempDir) throws Exception {
+        Path rosterFile = tempDir.resolve("roster.csv");
+        Files.writeString(rosterFile, "Provider Id," + RosterLoaderTest.HEADER
+            + "p-1," + RosterLoaderTest.row("Ada", "Kim", 3, "CA"));
+        var rosterProperties = new RosterProperties();
+        rosterProperties.setLocation(rosterFile.toUri().toString());
+        service = newService(rosterProperties, new SimpleMeterRegistry());
+        service.init();
+        request.setLocation("CA");
+        request.getTherapistPreferences().setPreferredLanguage("Any");
+        request.setTreatmentModality(List.of("CBT"));
+        RosterSnapshot initial = service.getSnapshot();
+        List<Provider> inFlight = initial.getProviders();
+        service.reserve("p-1");
+
+        service.refreshRoster();
+        assertSame(initial, service.getSnapshot(), "Unchanged file should not be reloaded");
+
+        Files.writeString(rosterFile, "Provider Id," + RosterLoaderTest.HEADER
+            + "p-2," + RosterLoaderTest.row("Bo", "Park", 2, "CA")
+            + "p-1," + RosterLoaderTest.row("Ada", "Kim", 3, "CA"));
+        Files.setLastModifiedTime(rosterFile, FileTime.from(Instant.now().plusSeconds(60)));
+        service.refreshRoster();
+
+        RosterSnapshot reloaded = service.getSnapshot();
+        assertEquals(initial.getVersion() + 1, reloaded.getVersion());
+        assertEquals(1, inFlight.size(), "The previous snapshot stays intact for in-flight requests");
+        assertEquals(2, service.findMatches(request).size());
+        assertEquals(2, reloaded.findProvider("p-1").orElseThrow().getAvailableCapacity());
+    }
+}
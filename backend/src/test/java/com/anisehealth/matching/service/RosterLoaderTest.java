@@ -0,0 +1,224 @@
+package com.anisehealth.matching.service;
+
+import com.anisehealth.matching.config.RosterProperties;
+import com.anisehealth.matching.index.BioAnalyzer;
+import com.anisehealth.matching.index.ProviderIndex;
+import com.anisehealth.matching.model.Provider;
+import com.anisehealth.matching.model.UsState;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.DefaultResourceLoader;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RosterLoaderTest {
+    static final String HEADER = "First Name,Last Name,Ethnic Identity,Gender Identity,No Of Clients Able To Take On,"
+        + "Language,Location,Bio,Sexual Orientation,Religious Background,Treatment Modality,Areas of Specialization\n";
+
+    @TempDir
+    Path tempDir;
+
+    private Path rosterFile;
+    private RosterProperties properties;
+    private RosterLoader loader;
+
+    static String row(String firstName, String lastName, int capacity, String location) {
+        return firstName + "," + lastName + ",Korean American,Female," + capacity + ",English," + location
+            + ",Bio,Straight / heterosexual,None,CBT,Anxiety\n";
+    }
+
+    @BeforeEach
+    void setUp() throws Exception {
+        rosterFile = tempDir.resolve("roster.csv");
+        Files.writeString(rosterFile, HEADER + row("Ada", "Kim", 3, "CA") + row("Incomplete", "", 2, "NY"));
+        properties = new RosterProperties();
+        properties.setLocation(rosterFile.toUri().toString());
+        loader = new RosterLoader(properties, new DefaultResourceLoader());
+    }
+
+    @Test
+    void load_ParsesFileAndDropsIncompleteProviders() throws Exception {
+        List<Provider> providers = loader.load().build(1).getProviders();
+
+        assertEquals(1, providers.size());
+        assertEquals("Ada", providers.get(0).getFirstName());
+        assertEquals(List.of("CBT"), providers.get(0).getTreatmentModalities());
+    }
+
+    @Test
+    void load_ReportsRejectedRowsWithLineNumbers() throws Exception {
+        Files.writeString(rosterFile, HEADER
+            + "Bea,Cho,Korean American,Female,2,English,CA,\"Bio spanning\ntwo lines\",None,None,CBT,Anxiety\n"
+            + row("Bad", "Capacity", 0, "CA").replace(",0,", ",lots,")
+            + row("Incomplete", "", 2, "NY")
+            + row("Ada", "Kim", 3, "CA"));
+
+        var roster = loader.load();
+        var report = loader.getLastReport();
+
+        assertEquals(2, roster.size());
+        assertEquals(2, report.getAcceptedRows());
+        assertEquals(2, report.getRejectedRows());
+        assertEquals(4, report.getRejections().get(0).getLine());
+        assertEquals(5, report.getRejections().get(1).getLine());
+        assertEquals("Missing required provider fields", report.getRejections().get(1).getReason());
+    }
+
+    @Test
+    void load_InParallelChunks_MatchesSequentialLoad() throws Exception {
+        var csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 40; i++) {
+            csv.append(i % 7 == 3 ? row("Incomplete", "", 2, "NY") : row("Name" + (i % 5), "Kim", i % 4 + 1, i % 2 == 0 ? "CA" : "NY"));
+        }
+        Files.writeString(rosterFile, csv.toString());
+
+        properties.setIngestParallelism(1);
+        var sequential = loader.load().build(1);
+        var sequentialReport = loader.getLastReport();
+        properties.setIngestParallelism(4);
+        properties.setIngestChunkSize(3);
+        var parallel = loader.load().build(1);
+        var parallelReport = loader.getLastReport();
+
+        assertEquals(sequential.getProviders().size(), parallel.getProviders().size());
+        for (int i = 0; i < sequential.getProviders().size(); i++) {
+            Provider expected = sequential.getProviders().get(i);
+            Provider actual = parallel.getProviders().get(i);
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getAvailableCapacity(), actual.getAvailableCapacity());
+            assertEquals(sequential.getIndex().tieBreakRank(i), parallel.getIndex().tieBreakRank(i));
+            assertArrayEquals(expected.getTreatmentModalityIds(), actual.getTreatmentModalityIds());
+            assertEquals(expected.getGenderId(), actual.getGenderId());
+        }
+        assertEquals(sequential.getDictionary().size(), parallel.getDictionary().size());
+        for (int termId = 0; termId < sequential.getDictionary().size(); termId++) {
+            assertEquals(sequential.getDictionary().term(termId), parallel.getDictionary().term(termId));
+        }
+        assertEquals(sequentialReport.getRejections(), parallelReport.getRejections());
+        assertEquals(sequentialReport.getAcceptedRows(), parallelReport.getAcceptedRows());
+        var candidates = parallel.getIndex().anyOf(ProviderIndex.Field.TREATMENT_MODALITY,
+            new int[] {parallel.getDictionary().lookup("CBT")});
+        parallel.getIndex().retainLocated(candidates, UsState.parseMask("CA"));
+        var expected = sequential.getIndex().anyOf(ProviderIndex.Field.TREATMENT_MODALITY,
+            new int[] {sequential.getDictionary().lookup("CBT")});
+        sequential.getIndex().retainLocated(expected, UsState.parseMask("CA"));
+        assertEquals(expected, candidates);
+    }
+
+    @Test
+    void load_WithSnapshotPath_RestoresSnapshotWrittenByCsvLoad() throws Exception {
+        Files.writeString(rosterFile, HEADER + row("Ada", "Kim", 3, "CA") + row("Bea", "Cho", 2, "\"NY, CA\"")
+            + row("Incomplete", "", 2, "NY"));
+        Path snapshot = tempDir.resolve("snapshots/roster.bin");
+        properties.setSnapshotPath(snapshot.toString());
+
+        var parsed = loader.load().build(1);
+        assertTrue(Files.exists(snapshot));
+        var restored = new RosterLoader(properties, new DefaultResourceLoader()).load().build(1);
+        var report = loader.getLastReport();
+
+        assertEquals(2, parsed.getProviders().size());
+        assertEquals(parsed.getProviders(), restored.getProviders());
+        Provider bea = restored.findProvider("bea-cho").orElseThrow();
+        assertEquals(2, bea.getAvailableCapacity());
+        assertEquals(parsed.getProviders().get(1).getStaticScore(), bea.getStaticScore());
+        assertArrayEquals(parsed.getProviders().get(1).getTreatmentModalityIds(), bea.getTreatmentModalityIds());
+        assertEquals(1, report.getRejectedRows());
+        assertFalse(restored.hasStableId(0), "Name-derived ids stay marked after a restore");
+
+        var expected = parsed.getIndex().anyOf(ProviderIndex.Field.SPECIALIZATION_AREA,
+            new int[] {parsed.getDictionary().lookup("Anxiety")});
+        var actual = restored.getIndex().anyOf(ProviderIndex.Field.SPECIALIZATION_AREA,
+            new int[] {restored.getDictionary().lookup("Anxiety")});
+        restored.getIndex().retainLocated(actual, UsState.parseMask("NY"));
+        assertEquals(1, actual.cardinality());
+        assertTrue(expected.get(actual.nextSetBit(0)));
+        assertEquals(parsed.getIndex().tieBreakRank(0), restored.getIndex().tieBreakRank(0));
+        var bio = BioAnalyzer.terms("bio");
+        assertEquals(parsed.getBioIndex().relevance(bio).size(), restored.getBioIndex().relevance(bio).size());
+        assertEquals(parsed.getBioIndex().relevance(bio).of(1), restored.getBioIndex().relevance(bio).of(1));
+    }
+
+    @Test
+    void load_WhenCsvTouchedSinceSnapshot_ParsesCsvWithoutComparingContent() throws Exception {
+        Path snapshot = tempDir.resolve("roster.bin");
+        properties.setSnapshotPath(snapshot.toString());
+        loader.load();
+        Files.setLastModifiedTime(rosterFile, FileTime.from(Instant.now().plusSeconds(60)));
+
+        loader.load();
+        assertEquals(properties.getLocation(), loader.getLastReport().getSource());
+
+        var next = new RosterLoader(properties, new DefaultResourceLoader());
+        next.load();
+        assertNotEquals(properties.getLocation(), next.getLastReport().getSource(),
+            "The rewritten snapshot carries the new timestamp");
+    }
+
+    @Test
+    void load_WhenCsvChangedSinceSnapshot_ParsesCsvAndRewritesSnapshot() throws Exception {
+        Path snapshot = tempDir.resolve("roster.bin");
+        properties.setSnapshotPath(snapshot.toString());
+        loader.load();
+        Files.writeString(rosterFile, HEADER + row("Ada", "Kim", 3, "CA") + row("Bea", "Cho", 2, "NY"));
+
+        var roster = loader.load();
+
+        assertEquals(2, roster.size());
+        assertEquals(properties.getLocation(), loader.getLastReport().getSource());
+        var restored = new RosterLoader(properties, new DefaultResourceLoader()).load();
+        assertEquals(2, restored.size());
+    }
+
+    @Test
+    void load_WhenCsvEditedKeepingSizeAndTimestamp_DetectsChangeByChecksum() throws Exception {
+        Path snapshot = tempDir.resolve("roster.bin");
+        properties.setSnapshotPath(snapshot.toString());
+        loader.load();
+        FileTime modified = Files.getLastModifiedTime(rosterFile);
+        Files.writeString(rosterFile, HEADER + row("Ada", "Kim", 4, "CA") + row("Incomplete", "", 2, "NY"));
+        Files.setLastModifiedTime(rosterFile, modified);
+
+        var roster = new RosterLoader(properties, new DefaultResourceLoader()).load().build(1);
+
+        assertEquals(4, roster.findProvider("ada-kim").orElseThrow().getAvailableCapacity());
+    }
+
+    @Test
+    void load_WhenSnapshotIsCorrupt_FallsBackToCsv() throws Exception {
+        Path snapshot = tempDir.resolve("roster.bin");
+        properties.setSnapshotPath(snapshot.toString());
+        loader.load();
+        byte[] bytes = Files.readAllBytes(snapshot);
+        Files.write(snapshot, Arrays.copyOf(bytes, bytes.length / 2));
+
+        var roster = loader.load();
+
+        assertEquals(1, roster.size());
+        assertEquals(properties.getLocation(), loader.getLastReport().getSource());
+    }
+
+    @Test
+    void hasChanged_TracksFileModificationSinceLastLoad() throws Exception {
+        assertTrue(loader.hasChanged());
+        loader.load();
+        assertFalse(loader.hasChanged());
+
+        Files.setLastModifiedTime(rosterFile, FileTime.from(Instant.now().plusSeconds(60)));
+        assertTrue(loader.hasChanged());
+    }
+
+    @Test
+    void hasChanged_IsFalseForClasspathJarResources() {
+        properties.setLocation("classpath:does-not-exist.csv");
+        assertFalse(loader.hasChanged());
+    }
+}
@@ -0,0 +1,57 @@
+package com.anisehealth.matching.service;
+
+import com.anisehealth.matching.index.ProviderIndex;
+import com.anisehealth.matching.model.Provider;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKSelectorTest {
+
+    private Provider provider(String firstName, String lastName) {
+        var provider = new Provider();
+        provider.setFirstName(firstName);
+        provider.setLastName(lastName);
+        provider.processRawFields();
+        return provider;
+    }
+
+    private final ProviderIndex index = ProviderIndex.of(List.of(
+        provider("Zoe", "Young"),
+        provider("Amy", "Young"),
+        provider("Ben", "Adams"),
+        provider("Cal", "Baker"),
+        provider("Dee", "Clark")));
+
+    @Test
+    void keepsHighestScoresBestFirst() {
+        var selector = new TopKSelector(3, index);
+        int[] scores = {5, 40, 10, 30, 20};
+        for (int ordinal = 0; ordinal < scores.length; ordinal++) {
+            selector.offer(ordinal, scores[ordinal]);
+        }
+
+        assertArrayEquals(new int[] {1, 3, 4}, selector.ordinalsBestFirst());
+    }
+
+    @Test
+    void breaksTiesByNameRegardlessOfOfferOrder() {
+        var selector = new TopKSelector(2, index);
+        for (int ordinal = 0; ordinal < 5; ordinal++) {
+            selector.offer(ordinal, 7);
+        }
+
+        assertArrayEquals(new int[] {2, 3}, selector.ordinalsBestFirst());
+    }
+
+    @Test
+    void returnsFewerThanKWhenFewerCandidates() {
+        var selector = new TopKSelector(3, index);
+        selector.offer(0, 1);
+        selector.offer(1, 1);
+
+        assertArrayEquals(new int[] {1, 0}, selector.ordinalsBestFirst());
+    }
+}